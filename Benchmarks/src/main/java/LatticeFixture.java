@@ -0,0 +1,94 @@
+import java.util.function.Function;
+
+/**
+ * Builds the TestSuite lattices for the benchmarks (see benchmarks.Fixture).
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class LatticeFixture implements benchmarks.Fixture {
+
+    private Lattice2D lattice;
+    private Heuristic heuristic;
+    private int searchType;
+
+    public void setUp(String latticeName, String searchTypeName, String heuristicName) {
+        switch (latticeName) {
+            case "easyEmpty":
+                lattice = corners(TestSuite.easyEmpty, 10);
+                break;
+            case "doubleSlit":
+                lattice = corners(TestSuite.doubleSlit, 10);
+                break;
+            case "testNoise1":
+                lattice = corners(TestSuite.testNoise1, 10);
+                break;
+            case "testNoise2":
+                lattice = corners(TestSuite.testNoise2, 10);
+                break;
+            case "nookTest":
+                lattice = corners(TestSuite.nookTest, 50);
+                break;
+            case "hardEmpty":
+                lattice = corners(TestSuite.hardEmpty, 500);
+                break;
+            case "noiseBoard":
+                lattice = new Lattice2D(TestSuite.noiseBoard(), TestSuite.noiseBoardStart, TestSuite.noiseBoardEnd);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown lattice: " + latticeName);
+        }
+
+        switch (searchTypeName) {
+            case "DFID":
+                searchType = Lattice2D.SEARCH_TYPE_DFID;
+                break;
+            case "ASID":
+                searchType = Lattice2D.SEARCH_TYPE_ASID;
+                break;
+            case "AS":
+                searchType = Lattice2D.SEARCH_TYPE_AS;
+                break;
+            case "BDAS":
+                searchType = Lattice2D.SEARCH_TYPE_BDAS;
+                break;
+            case "JPS":
+                searchType = Lattice2D.SEARCH_TYPE_JPS;
+                break;
+            case "BDJPS":
+                searchType = Lattice2D.SEARCH_TYPE_BDJPS;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown search type: " + searchTypeName);
+        }
+
+        switch (heuristicName) {
+            case "SLD":
+                heuristic = Lattice2D.hSLD;
+                break;
+            case "MH":
+                heuristic = Lattice2D.hMH;
+                break;
+            case "MHNook":
+                heuristic = Lattice2D.hMHNook;
+                break;
+            case "NULL":
+                heuristic = Lattice2D.hNULL;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown heuristic: " + heuristicName);
+        }
+    }
+
+    public Object solve() {
+        return lattice.solve(heuristic, heuristic, searchType);
+    }
+
+    /**
+     * @return The lattice searched from [0, 0] to [size, size], as in TestSuite.
+     */
+    private static Lattice2D corners(Function<int[], Boolean> probe, int size) {
+        return new Lattice2D(probe, new int[][] {{0, 0}}, new int[][] {{size, size}});
+    }
+}
@@ -0,0 +1,32 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Depth First Iterative Deepening over the small TestSuite lattices. It always uses the uniform cost hueristic.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class DepthFirstBenchmark extends SolveBenchmark {
+
+    @Param({"easyEmpty", "testNoise1", "testNoise2"})
+    public String lattice;
+
+    protected String lattice() {
+        return lattice;
+    }
+
+    protected String searchType() {
+        return "DFID";
+    }
+
+    protected String heuristic() {
+        return "NULL";
+    }
+}
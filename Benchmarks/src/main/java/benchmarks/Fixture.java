@@ -0,0 +1,29 @@
+package benchmarks;
+
+/**
+ * A lattice and search prepared for benchmarking. JMH does not allow benchmarks in the default package, and classes in a
+ * named package cannot refer to the solver (which lives in the default package), so the solver is only touched through
+ * this interface, implemented by LatticeFixture next to the solver.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public interface Fixture {
+
+    /**
+     * Builds the lattice and selects the search.
+     *
+     * @param lattice The name of a TestSuite lattice (e.g. easyEmpty or noiseBoard).
+     * @param searchType The name of a search type as accepted by Lattice2D.main (e.g. AS or BDAS).
+     * @param heuristic The name of a hueristic as accepted by Lattice2D.main (e.g. MH or MHNook).
+     */
+    public void setUp(String lattice, String searchType, String heuristic);
+
+    /**
+     * Runs the selected search once.
+     *
+     * @return The search results, to be consumed by the benchmark.
+     */
+    public Object solve();
+}
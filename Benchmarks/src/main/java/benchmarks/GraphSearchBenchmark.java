@@ -0,0 +1,34 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * The graph searches over every TestSuite lattice and hueristic.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class GraphSearchBenchmark extends SolveBenchmark {
+
+    @Param({"easyEmpty", "doubleSlit", "testNoise1", "testNoise2", "nookTest", "hardEmpty", "noiseBoard"})
+    public String lattice;
+
+    @Param({"AS", "BDAS", "JPS", "BDJPS"})
+    public String searchType;
+
+    @Param({"MH", "SLD", "MHNook", "NULL"})
+    public String heuristic;
+
+    protected String lattice() {
+        return lattice;
+    }
+
+    protected String searchType() {
+        return searchType;
+    }
+
+    protected String heuristic() {
+        return heuristic;
+    }
+}
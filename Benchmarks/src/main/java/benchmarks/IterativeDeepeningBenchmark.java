@@ -0,0 +1,36 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A* Iterative Deepening over the small TestSuite lattices (the larger ones do not finish in reasonable time).
+ * Solves take up to seconds, so fewer and longer iterations are used.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class IterativeDeepeningBenchmark extends SolveBenchmark {
+
+    @Param({"easyEmpty", "testNoise1", "testNoise2"})
+    public String lattice;
+
+    @Param({"MH", "SLD", "MHNook", "NULL"})
+    public String heuristic;
+
+    protected String lattice() {
+        return lattice;
+    }
+
+    protected String searchType() {
+        return "ASID";
+    }
+
+    protected String heuristic() {
+        return heuristic;
+    }
+}
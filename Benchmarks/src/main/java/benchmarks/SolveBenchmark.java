@@ -0,0 +1,75 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures one call to Lattice2D.solve per operation, for the lattice, search type and hueristic chosen by the parameters of
+ * each subclass. The progress printed by solve is discarded while measuring.
+ *
+ * Build with "mvn package" in this directory and run "java -jar target/benchmarks.jar", which reports throughput, average time
+ * and (through the GC profiler) the allocation rate per solve. Any JMH options can be passed, e.g. a benchmark name regex.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public abstract class SolveBenchmark {
+
+    private Fixture fixture;
+    private PrintStream out;
+
+    protected abstract String lattice();
+
+    protected abstract String searchType();
+
+    protected abstract String heuristic();
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        fixture = (Fixture) Class.forName("LatticeFixture").getDeclaredConstructor().newInstance();
+        fixture.setUp(lattice(), searchType(), heuristic());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(out);
+    }
+
+    @Benchmark
+    public Object solve() {
+        return fixture.solve();
+    }
+
+    /**
+     * Runs the benchmarks with the GC profiler, passing on any other JMH options.
+     */
+    public static void main(String[] args) throws Exception {
+        String[] jmhArgs = Arrays.copyOf(new String[] {"-prof", "gc"}, args.length + 2);
+        System.arraycopy(args, 0, jmhArgs, 2, args.length);
+        org.openjdk.jmh.Main.main(jmhArgs);
+    }
+}
@@ -0,0 +1,263 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.stream.IntStream;
+
+/**
+ * A bounded lattice stored as a packed bitset: one bit per position (1 is occupied), 64 positions per long.
+ * Every row starts on a fresh word and the padding bits past the end of a row are set, so positions outside the
+ * lattice read as occupied without any bounds checks inside a row. Whole words can be read at once, which lets row
+ * scans and neighbour tests look at many positions per instruction.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class BitGrid implements LatticeProbe {
+
+    private static final int RASTER_BAND_POSITIONS = 1 << 14;     //Positions probed by one parallel task of rasterize
+
+    private final int width, height;
+    private final int wordsPerRow;
+    private final long[] words;
+
+    /**
+     * Initializes a completely empty lattice.
+     *
+     * @param width The width of the lattice.
+     * @param height The height of the lattice.
+     */
+    public BitGrid(int width, int height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Lattice dimensions must be non-negative: " + width + "x" + height);
+        }
+        long wordCount = (long) ((width + 63) >>> 6) * height;
+        if (wordCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Lattice too large for a single bitset: " + width + "x" + height);
+        }
+
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.words = new long[(int) wordCount];
+
+        //Mark the padding past the end of every row as occupied.
+        if ((width & 63) != 0) {
+            long padding = -1L << (width & 63);
+            for (int y = 0; y < height; y++) {
+                words[y * wordsPerRow + wordsPerRow - 1] = padding;
+            }
+        }
+    }
+
+    /**
+     * Initializes the lattice from a two dimensional boolean array. Rows may have different lengths, the lattice is as wide as the
+     * longest row and positions past the end of a shorter row are occupied.
+     *
+     * @param board The two dimensional boolean array representing the lattice. False is empty and True is occupied.
+     */
+    public BitGrid(boolean[][] board) {
+        this(maxLength(board), board.length);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (x >= board[y].length || board[y][x]) {
+                    set(x, y, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a lattice from a file where the character '0' is an empty space and any other character is occupied, one row per line.
+     * The file is read twice (once to size the lattice, once to fill it) so that no intermediate copy of the board is held.
+     * Positions past the end of a shorter line are occupied.
+     *
+     * @param fname The name of the board file.
+     * @return The lattice.
+     * @throws IOException If the file could not be read.
+     */
+    public static BitGrid read(String fname) throws IOException {
+        int width = 0, height = 0;
+        String line;
+        try (BufferedReader in = new BufferedReader(new FileReader(fname))) {
+            while ((line = in.readLine()) != null) {
+                width = Math.max(width, line.length());
+                height++;
+            }
+        }
+
+        BitGrid grid = new BitGrid(width, height);
+        try (BufferedReader in = new BufferedReader(new FileReader(fname))) {
+            for (int y = 0; y < height && (line = in.readLine()) != null; y++) {
+                for (int x = 0; x < width; x++) {
+                    if (x >= line.length() || line.charAt(x) != '0') {
+                        grid.set(x, y, true);
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Rasterizes a probe over the rectangle from [0, 0] to [width - 1, height - 1]. Bands of rows are probed in parallel on the
+     * common fork-join pool, so the probe must be safe to call from several threads at once.
+     *
+     * @param probe The probe, True if a position is occupied.
+     * @param width The width of the lattice.
+     * @param height The height of the lattice.
+     * @return The lattice.
+     */
+    public static BitGrid rasterize(LatticeProbe probe, int width, int height) {
+        BitGrid grid = new BitGrid(width, height);
+        int bandRows = Math.max(1, RASTER_BAND_POSITIONS / Math.max(1, width));
+        int bands = (height + bandRows - 1) / bandRows;
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            grid.rasterizeRows(probe, band * bandRows, Math.min(height, (band + 1) * bandRows));
+        });
+        return grid;
+    }
+
+    /**
+     * Probes rows [first, last) a word at a time. Each row is only written by one band, so bands can run concurrently.
+     */
+    private void rasterizeRows(LatticeProbe probe, int first, int last) {
+        long word;
+        for (int y = first; y < last; y++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                word = 0;
+                for (int bit = 0, x = w << 6; bit < 64; bit++, x++) {
+                    if (x >= width || probe.isBlocked(x, y)) {
+                        word |= 1L << bit;
+                    }
+                }
+                words[y * wordsPerRow + w] = word;
+            }
+        }
+    }
+
+    private static int maxLength(boolean[][] board) {
+        int width = 0;
+        for (boolean[] row : board) {
+            width = Math.max(width, row.length);
+        }
+        return width;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /**
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return True if the position is occupied or outside the lattice.
+     */
+    @Override
+    public boolean isBlocked(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return true;
+        }
+        return (words[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * @return True: probes only read the words of the grid (which must not be set while it is being searched).
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param blocked True to mark the position as occupied, False to mark it as empty.
+     */
+    public void set(int x, int y, boolean blocked) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("[" + x + ", " + y + "] is outside the " + width + "x" + height + " lattice");
+        }
+        if (blocked) {
+            words[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+        } else {
+            words[y * wordsPerRow + (x >>> 6)] &= ~(1L << x);
+        }
+    }
+
+    /**
+     * Reads 64 consecutive positions of a row at once. Positions outside the lattice read as occupied.
+     *
+     * @param x The x coordinate of the first position (may be negative).
+     * @param y The y coordinate of the row.
+     * @return The occupancy of positions x to x + 63, with position x in the lowest bit.
+     */
+    public long window(int x, int y) {
+        if (y < 0 || y >= height) {
+            return -1L;
+        }
+        int word = x >> 6;
+        int shift = x & 63;
+        if (shift == 0) {
+            return word(y, word);
+        }
+        return (word(y, word) >>> shift) | (word(y, word + 1) << (64 - shift));
+    }
+
+    private long word(int y, int word) {
+        if (word < 0 || word >= wordsPerRow) {
+            return -1L;
+        }
+        return words[y * wordsPerRow + word];
+    }
+
+    /**
+     * Scans a row to the right for an occupied position, a word at a time.
+     *
+     * @param x The x coordinate to start from (inclusive).
+     * @param y The y coordinate of the row.
+     * @return The smallest x coordinate at or after x that is occupied (width if there is none inside the lattice).
+     */
+    public int nextBlocked(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return x;
+        }
+        int base = y * wordsPerRow;
+        int word = x >>> 6;
+        long bits = words[base + word] & (-1L << x);
+        while (bits == 0) {
+            if (++word == wordsPerRow) {
+                return width;
+            }
+            bits = words[base + word];
+        }
+        return Math.min((word << 6) + Long.numberOfTrailingZeros(bits), width);
+    }
+
+    /**
+     * Scans a row to the left for an occupied position, a word at a time.
+     *
+     * @param x The x coordinate to start from (inclusive).
+     * @param y The y coordinate of the row.
+     * @return The largest x coordinate at or before x that is occupied (-1 if there is none inside the lattice).
+     */
+    public int previousBlocked(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return x;
+        }
+        int base = y * wordsPerRow;
+        int word = x >>> 6;
+        long bits = words[base + word] & (-1L >>> (63 - (x & 63)));
+        while (bits == 0) {
+            if (--word < 0) {
+                return -1;
+            }
+            bits = words[base + word];
+        }
+        return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+    }
+}
@@ -0,0 +1,270 @@
+import java.util.Arrays;
+
+/**
+ * A bucketed (Dial) open list for lattices where every move has unit cost and the hueristics return whole numbers.
+ * Handles are kept in intrusive doubly linked lists, one per (f, h) pair: an array of buckets is indexed by the integer f value
+ * and each bucket holds one list per integer h value. Pushing, popping and decrease-key are therefore O(1) (amortized over the
+ * forward scans of the f and h cursors). Entries with equal f and h values are popped in the order they were pushed, which matches
+ * ordering by ID when IDs increase with every push (as they do in Lattice2D).
+ *
+ * If a key is pushed that is not a non-negative whole number (e.g. from the Straight Line Distance hueristic), all queued entries
+ * are moved to an IndexedHeap and the queue delegates to it from then on.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class BucketQueue implements OpenList {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * All the entries sharing a single f value, split into one list per h value.
+     */
+    private static class Bucket {
+        public int[] heads = new int[0];
+        public int[] tails = new int[0];
+        public int count = 0;
+        public int minH = Integer.MAX_VALUE;
+        public Bucket nextFree;
+    }
+
+    private Bucket[] buckets = new Bucket[INITIAL_CAPACITY];    //f -> bucket (null if empty)
+    private Bucket freeBuckets = null;                          //Drained buckets kept for reuse
+    private int minF = Integer.MAX_VALUE;
+    private int maxF = -1;
+    private int size = 0;
+
+    private int[] next, prev;       //Handle -> neighbouring handles in its list (-1 at the ends)
+    private int[] fOf, hOf;         //Handle -> current bucket and list (fOf is -1 if the handle is not queued)
+    private long[] ids;             //Handle -> ID (only needed when falling back to the heap)
+
+    private IndexedHeap fallback = null;
+    private IndexedHeap spareHeap = null;   //The heap of an earlier fall back, reused by the next one
+
+    public BucketQueue() {
+        next = new int[INITIAL_CAPACITY];
+        prev = new int[INITIAL_CAPACITY];
+        fOf = new int[INITIAL_CAPACITY];
+        hOf = new int[INITIAL_CAPACITY];
+        ids = new long[INITIAL_CAPACITY];
+        Arrays.fill(fOf, -1);
+    }
+
+    /**
+     * @return True if the queue has fallen back to a comparison heap because of a non-integral key.
+     */
+    public boolean isFallback() {
+        return fallback != null;
+    }
+
+    public int size() {
+        return fallback == null ? size : fallback.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean contains(int handle) {
+        if (fallback != null) {
+            return fallback.contains(handle);
+        }
+        return handle < fOf.length && fOf[handle] >= 0;
+    }
+
+    public void push(int handle, double f, double h, long id) {
+        if (fallback != null) {
+            fallback.push(handle, f, h, id);
+            return;
+        }
+
+        int fInt = (int) f;
+        int hInt = (int) h;
+        if (fInt != f || hInt != h || fInt < 0 || hInt < 0) {
+            fallBack();
+            fallback.push(handle, f, h, id);
+            return;
+        }
+
+        if (handle >= fOf.length) {
+            int oldLength = fOf.length;
+            int capacity = Math.max(handle + 1, oldLength << 1);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            fOf = Arrays.copyOf(fOf, capacity);
+            hOf = Arrays.copyOf(hOf, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            Arrays.fill(fOf, oldLength, capacity, -1);
+        }
+
+        if (fOf[handle] >= 0) {
+            unlink(handle);
+        }
+        ids[handle] = id;
+        link(handle, fInt, hInt);
+    }
+
+    public int pop() {
+        if (fallback != null) {
+            return fallback.pop();
+        }
+
+        if (size == 0) {
+            return -1;
+        }
+
+        Bucket bucket;
+        while ((bucket = buckets[minF]) == null) {
+            minF++;
+        }
+        while (bucket.heads[bucket.minH] < 0) {
+            bucket.minH++;
+        }
+
+        int handle = bucket.heads[bucket.minH];
+        unlink(handle);
+        return handle;
+    }
+
+    public void remove(int handle) {
+        if (fallback != null) {
+            fallback.remove(handle);
+        } else if (contains(handle)) {
+            unlink(handle);
+        }
+    }
+
+    /**
+     * Removes all queued handles. A queue that has fallen back to the heap goes back to buckets, so it can be reused for another search.
+     */
+    public void clear() {
+        if (fallback != null) {
+            fallback.clear();
+            spareHeap = fallback;
+            fallback = null;
+            minF = Integer.MAX_VALUE;
+            maxF = -1;
+            return;
+        }
+
+        Bucket bucket;
+        int handle;
+        for (int f = minF; f <= maxF && size > 0; f++) {
+            if ((bucket = buckets[f]) == null) {
+                continue;
+            }
+            for (int h = bucket.minH; h < bucket.heads.length && size > 0; h++) {
+                while ((handle = bucket.heads[h]) >= 0) {
+                    unlink(handle);
+                }
+            }
+        }
+        minF = Integer.MAX_VALUE;
+        maxF = -1;
+    }
+
+    /**
+     * Appends a handle to the list of its (f, h) pair.
+     */
+    private void link(int handle, int f, int h) {
+        if (f >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, Math.max(f + 1, buckets.length << 1));
+        }
+
+        Bucket bucket = buckets[f];
+        if (bucket == null) {
+            if (freeBuckets != null) {
+                bucket = freeBuckets;
+                freeBuckets = bucket.nextFree;
+                bucket.nextFree = null;
+            } else {
+                bucket = new Bucket();
+            }
+            buckets[f] = bucket;
+        }
+
+        if (h >= bucket.heads.length) {
+            int oldLength = bucket.heads.length;
+            int capacity = Math.max(h + 1, oldLength << 1);
+            bucket.heads = Arrays.copyOf(bucket.heads, capacity);
+            bucket.tails = Arrays.copyOf(bucket.tails, capacity);
+            Arrays.fill(bucket.heads, oldLength, capacity, -1);
+            Arrays.fill(bucket.tails, oldLength, capacity, -1);
+        }
+
+        int tail = bucket.tails[h];
+        prev[handle] = tail;
+        next[handle] = -1;
+        if (tail < 0) {
+            bucket.heads[h] = handle;
+        } else {
+            next[tail] = handle;
+        }
+        bucket.tails[h] = handle;
+
+        fOf[handle] = f;
+        hOf[handle] = h;
+        bucket.count++;
+        size++;
+        if (h < bucket.minH) {
+            bucket.minH = h;
+        }
+        if (f < minF) {
+            minF = f;
+        }
+        if (f > maxF) {
+            maxF = f;
+        }
+    }
+
+    /**
+     * Removes a queued handle from its list, recycling its bucket if the bucket becomes empty.
+     */
+    private void unlink(int handle) {
+        int f = fOf[handle];
+        int h = hOf[handle];
+        Bucket bucket = buckets[f];
+
+        if (prev[handle] < 0) {
+            bucket.heads[h] = next[handle];
+        } else {
+            next[prev[handle]] = next[handle];
+        }
+        if (next[handle] < 0) {
+            bucket.tails[h] = prev[handle];
+        } else {
+            prev[next[handle]] = prev[handle];
+        }
+
+        fOf[handle] = -1;
+        size--;
+        if (--bucket.count == 0) {
+            bucket.minH = Integer.MAX_VALUE;
+            bucket.nextFree = freeBuckets;
+            freeBuckets = bucket;
+            buckets[f] = null;
+        }
+    }
+
+    /**
+     * Moves all queued entries to a comparison heap, which handles every operation from then on.
+     */
+    private void fallBack() {
+        fallback = spareHeap != null ? spareHeap : new IndexedHeap();
+        spareHeap = null;
+        Bucket bucket;
+        int handle;
+        for (int f = minF; f <= maxF && size > 0; f++) {
+            if ((bucket = buckets[f]) == null) {
+                continue;
+            }
+            for (int h = bucket.minH; h < bucket.heads.length && size > 0; h++) {
+                while ((handle = bucket.heads[h]) >= 0) {
+                    unlink(handle);
+                    fallback.push(handle, f, h, ids[handle]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * A probe that memoizes another probe, for lattices whose probe is expensive (e.g. procedural noise). The source probe is
+ * rasterized into packed 64 x 64 tiles the first time a position of the tile is probed, after which every position of the
+ * tile costs a single bit lookup. At most a fixed memory budget of tiles is kept, and the least recently used tiles are evicted
+ * (and rasterized again if they are probed again) once it is spent.
+ *
+ * The source probe must always give the same answer for a position, and may be unbounded, in which case tiles are cached
+ * wherever the search goes. Probing is thread-safe, and the source probe is only ever called by one thread at a time (tiles are
+ * rasterized one at a time, while probes of resident tiles go ahead).
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class CachedProbe implements LatticeProbe {
+
+    public static final long DEFAULT_BUDGET = 64L << 20;   //64MB
+
+    private static final int TILE_SHIFT = 6;               //64 x 64 positions, one long per row
+    private static final int TILE_BYTES = 640;             //Words plus the array, tile and slot overhead
+
+    private final LatticeProbe source;
+    private final TileCache cache;
+    private final Object sourceLock = new Object();     //Serializes calls to the source probe, which need not be thread-safe
+
+    /**
+     * Memoizes a probe within the default memory budget.
+     *
+     * @param source The probe to memoize.
+     */
+    public CachedProbe(LatticeProbe source) {
+        this(source, DEFAULT_BUDGET);
+    }
+
+    /**
+     * @param source The probe to memoize.
+     * @param budgetBytes Roughly the most memory the cached tiles may use (at least one tile is always kept).
+     */
+    public CachedProbe(LatticeProbe source, long budgetBytes) {
+        this.source = source;
+        this.cache = new TileCache((int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, budgetBytes / TILE_BYTES)), this::rasterize);
+    }
+
+    /**
+     * Probes every position of a tile with the source probe.
+     */
+    private long[] rasterize(int tx, int ty) {
+        long[] rows = new long[1 << TILE_SHIFT];
+        int x0 = tx << TILE_SHIFT;
+        int y0 = ty << TILE_SHIFT;
+        long word;
+        synchronized (sourceLock) {
+            for (int y = 0; y < rows.length; y++) {
+                word = 0;
+                for (int bit = 0; bit < 64; bit++) {
+                    if (source.isBlocked(x0 + bit, y0 + y)) {
+                        word |= 1L << bit;
+                    }
+                }
+                rows[y] = word;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return True if the source probe reports the position as occupied.
+     */
+    @Override
+    public boolean isBlocked(int x, int y) {
+        return (cache.tile(x >> TILE_SHIFT, y >> TILE_SHIFT)[y & 63] & (1L << x)) != 0;
+    }
+
+    /**
+     * @return True: the tile cache is thread-safe and calls to the source probe are serialized.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * @return The number of probes answered by a cached tile, not counting repeated probes of the last tile used (see TileCache.hits).
+     */
+    public long hits() {
+        return cache.hits();
+    }
+
+    /**
+     * @return The number of tiles rasterized from the source probe.
+     */
+    public long misses() {
+        return cache.misses();
+    }
+
+    /**
+     * @return The number of tiles evicted to stay within the memory budget.
+     */
+    public long evictions() {
+        return cache.evictions();
+    }
+
+    /**
+     * @return The number of tiles currently cached.
+     */
+    public int residentTiles() {
+        return cache.residentTiles();
+    }
+}
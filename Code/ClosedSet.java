@@ -0,0 +1,279 @@
+import java.util.Arrays;
+
+/**
+ * The explored (closed) set of one search frontier in Lattice2D, which also acts as the frontier's node pool.
+ * Nodes are not objects: each node is a handle into parallel primitive arrays holding its position, parent handle,
+ * g value, h value and ID. The same handle identifies the node in the frontier's open list. The arrays are only
+ * grown, never reallocated per node, so expanding nodes performs no heap allocations once the pool is warm.
+ *
+ * Positions are indexed in a flat array (y * width + x) when the lattice has known bounds, and in a primitive
+ * open-addressing map otherwise, so lookups never box a position. The flat array is split into pages that are only
+ * allocated once a position in them is indexed, so a new set costs memory in proportion to the area searched rather than
+ * the whole lattice. Every index entry is stamped with the generation it was written in, so clearing the set only
+ * advances the generation and never touches the index.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class ClosedSet {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int PAGE_SHIFT = 12;           //4096 positions (32KB) per page of the flat index
+    private static final int PAGE_MASK = (1 << PAGE_SHIFT) - 1;
+
+    private final int width, height;
+    private final long[][] pages;       //y * width + x -> generation << 32 | handle (paged, null until used), null for unbounded lattices
+    private final LongIntMap cellMap;   //Lattice2D.getLongPos -> handle, null for bounded lattices
+    private int generation = 1;         //Index entries from any other generation are empty (0 is never current)
+    private int count = 0;
+
+    //Node pool (handle -> value)
+    private int[] xs = new int[INITIAL_CAPACITY];
+    private int[] ys = new int[INITIAL_CAPACITY];
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private double[] gVals = new double[INITIAL_CAPACITY];
+    private double[] hVals = new double[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int handles = 0;
+
+    /**
+     * Initializes a closed set for a bounded lattice, where every position satisfies 0 <= x < width and 0 <= y < height.
+     *
+     * @param width The width of the lattice.
+     * @param height The height of the lattice.
+     */
+    public ClosedSet(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pages = new long[(int) (((long) width * height + PAGE_MASK) >>> PAGE_SHIFT)][];
+        this.cellMap = null;
+    }
+
+    /**
+     * Initializes a closed set for an unbounded lattice.
+     */
+    public ClosedSet() {
+        this.width = -1;
+        this.height = -1;
+        this.pages = null;
+        this.cellMap = new LongIntMap();
+    }
+
+    /**
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The handle of the node indexed at the position, or -1 if there is none.
+     */
+    public int find(int x, int y) {
+        if (pages != null) {
+            if (x < 0 || x >= width || y < 0 || y >= height) {
+                return -1;
+            }
+            int cell = y * width + x;
+            long[] page = pages[cell >>> PAGE_SHIFT];
+            if (page == null) {
+                return -1;
+            }
+            long entry = page[cell & PAGE_MASK];
+            return (int) (entry >>> 32) == generation ? (int) entry : -1;
+        }
+        return cellMap.get((((long) x) << 32) | (y & 0xffffffffL));
+    }
+
+    /**
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return True if a node is indexed at the position.
+     */
+    public boolean contains(int x, int y) {
+        return find(x, y) >= 0;
+    }
+
+    /**
+     * Adds a node to the pool and indexes it at its position, replacing the node indexed there (which keeps its handle,
+     * but is no longer found by position).
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param parent The handle of the parent node, or -1 if there is none.
+     * @param gVal The travelled path length to get to the position.
+     * @param hVal The hueristic value of the node.
+     * @param id A unique ID for the node.
+     * @return The handle of the new node.
+     */
+    public int add(int x, int y, int parent, double gVal, double hVal, long id) {
+        int handle = append(x, y, parent, gVal, hVal, id);
+        int old;
+        if (pages != null) {
+            old = find(x, y);
+            int cell = y * width + x;
+            long[] page = pages[cell >>> PAGE_SHIFT];
+            if (page == null) {
+                page = pages[cell >>> PAGE_SHIFT] = new long[PAGE_MASK + 1];
+            }
+            page[cell & PAGE_MASK] = ((long) generation << 32) | handle;
+        } else {
+            old = cellMap.get((((long) x) << 32) | (y & 0xffffffffL));
+            cellMap.put((((long) x) << 32) | (y & 0xffffffffL), handle);
+        }
+        if (old < 0) {
+            count++;
+        }
+        return handle;
+    }
+
+    /**
+     * Adds a node to the pool without indexing it, so that it is only reachable through its handle
+     * (e.g. the last node of a path that ends in the other frontier).
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param parent The handle of the parent node, or -1 if there is none.
+     * @param gVal The travelled path length to get to the position.
+     * @param hVal The hueristic value of the node.
+     * @param id A unique ID for the node.
+     * @return The handle of the new node.
+     */
+    public int append(int x, int y, int parent, double gVal, double hVal, long id) {
+        if (handles == xs.length) {
+            int capacity = handles << 1;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            gVals = Arrays.copyOf(gVals, capacity);
+            hVals = Arrays.copyOf(hVals, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+
+        int handle = handles++;
+        xs[handle] = x;
+        ys[handle] = y;
+        parents[handle] = parent;
+        gVals[handle] = gVal;
+        hVals[handle] = hVal;
+        ids[handle] = id;
+        return handle;
+    }
+
+    /**
+     * Overwrites the parent, g value, h value and ID of a node in place, keeping its handle and position.
+     *
+     * @param handle The handle of the node.
+     * @param parent The handle of the new parent node, or -1 if there is none.
+     * @param gVal The new travelled path length.
+     * @param hVal The new hueristic value.
+     * @param id The new ID.
+     */
+    public void update(int handle, int parent, double gVal, double hVal, long id) {
+        parents[handle] = parent;
+        gVals[handle] = gVal;
+        hVals[handle] = hVal;
+        ids[handle] = id;
+    }
+
+    /**
+     * Stops indexing the node at a position. Its handle stays valid until the set is cleared.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     */
+    public void remove(int x, int y) {
+        if (find(x, y) < 0) {
+            return;
+        }
+
+        if (pages != null) {
+            int cell = y * width + x;
+            pages[cell >>> PAGE_SHIFT][cell & PAGE_MASK] = 0;
+        } else {
+            cellMap.remove((((long) x) << 32) | (y & 0xffffffffL));
+        }
+        count--;
+    }
+
+    /**
+     * Removes all nodes in constant time (by starting a new generation), keeping the capacity of the index and the node pool.
+     */
+    public void clear() {
+        if (pages != null) {
+            if (++generation == Integer.MAX_VALUE) {
+                for (long[] page : pages) {
+                    if (page != null) {
+                        Arrays.fill(page, 0);
+                    }
+                }
+                generation = 1;
+            }
+        } else {
+            cellMap.clear();
+        }
+        handles = 0;
+        count = 0;
+    }
+
+    /**
+     * Releases every handle from a given handle onwards, so that they are handed out again. Used by the depth-first
+     * searches, where every node pushed after the node being popped has already been expanded (and removed) or skipped.
+     *
+     * @param handleCount The number of handles to keep. None of the released handles may still be indexed.
+     */
+    public void truncate(int handleCount) {
+        if (handleCount < handles) {
+            handles = handleCount;
+        }
+    }
+
+    /**
+     * @param handle The handle of a node.
+     * @return True if the node is the one indexed at its position.
+     */
+    public boolean isIndexed(int handle) {
+        return find(xs[handle], ys[handle]) == handle;
+    }
+
+    /**
+     * @return The number of handles handed out since the set was last cleared (handles are 0 to handleCount() - 1).
+     */
+    public int handleCount() {
+        return handles;
+    }
+
+    /**
+     * @return The number of indexed positions.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return True if no positions are indexed.
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int x(int handle) {
+        return xs[handle];
+    }
+
+    public int y(int handle) {
+        return ys[handle];
+    }
+
+    public int parent(int handle) {
+        return parents[handle];
+    }
+
+    public double g(int handle) {
+        return gVals[handle];
+    }
+
+    public double h(int handle) {
+        return hVals[handle];
+    }
+
+    public long id(int handle) {
+        return ids[handle];
+    }
+}
@@ -0,0 +1,60 @@
+import java.util.function.Function;
+
+/**
+ * A hueristic for searching a Lattice2D. Before a search, the hueristic is prepared once for each search direction with the
+ * lattice and the goal positions, and the resulting Estimator is then called for every generated node with primitive
+ * arguments only, so the call can be inlined and nothing is boxed.
+ *
+ * A Heuristic is also a legacy hueristic lambda function (Lattice2D.Function5), so code written against the legacy hueristics
+ * keeps compiling, and solve(null, null, ...) still resolves to a single overload.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+@FunctionalInterface
+public interface Heuristic extends Lattice2D.Function5<Function<int[], Boolean>, int[], Lattice2D.Node, int[][], int[][], Double> {
+
+    /**
+     * Prepares the hueristic for one search direction, e.g. by copying the goal positions into primitive arrays.
+     *
+     * @param probe The lattice being searched.
+     * @param start The positions this search direction starts from.
+     * @param end The goal positions of this search direction.
+     * @return An estimator for this search. It is only used by the search it was prepared for, so it may keep scratch space.
+     */
+    public Estimator prepare(LatticeProbe probe, int[][] start, int[][] end);
+
+    /**
+     * Estimates the remaining path length from a position to the nearest goal.
+     */
+    @FunctionalInterface
+    public static interface Estimator {
+
+        /**
+         * @param x The x coordinate of the position.
+         * @param y The y coordinate of the position.
+         * @param parentX The x coordinate of the position the search came from (equal to x if there is none, e.g. for start positions).
+         * @param parentY The y coordinate of the position the search came from (equal to y if there is none).
+         * @return The estimated remaining path length, or Double.POSITIVE_INFINITY if the position should not be searched.
+         */
+        public double estimate(int x, int y, int parentX, int parentY);
+    }
+
+    /**
+     * Evaluates the hueristic as a legacy hueristic lambda function. The hueristic is prepared for every call, so searches
+     * prepare it once through prepare instead.
+     *
+     * @param probe The probe function of the lattice.
+     * @param pos The position [x, y] to estimate.
+     * @param parent The node the search came from, or null if there is none.
+     * @param start The positions the search starts from.
+     * @param end The goal positions.
+     * @return The estimated remaining path length.
+     */
+    @Override
+    public default Double apply(Function<int[], Boolean> probe, int[] pos, Lattice2D.Node parent, int[][] start, int[][] end) {
+        int[] from = parent == null ? pos : parent.pos;
+        return prepare(LatticeProbe.of(probe), start, end).estimate(pos[0], pos[1], from[0], from[1]);
+    }
+}
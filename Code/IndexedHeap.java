@@ -0,0 +1,204 @@
+import java.util.Arrays;
+
+/**
+ * An indexed 4-ary min-heap over integer handles, used as the default open list of the graph searches in Lattice2D.
+ * Entries are ordered firstly by their f values, then their h values and finally their IDs (the same ordering as Lattice2D.Node).
+ * The keys are kept in primitive arrays alongside the heap slots, and every handle remembers its current slot,
+ * so the key of a queued handle can be updated in place (decrease-key) instead of being removed and re-inserted.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class IndexedHeap implements OpenList {
+
+    private static final int ARITY = 4;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] heap;         //Heap slot -> handle
+    private double[] fVals;     //Heap slot -> f value
+    private double[] hVals;     //Heap slot -> h value
+    private long[] ids;         //Heap slot -> ID
+    private int[] slots;        //Handle -> heap slot (-1 if the handle is not queued)
+    private int size;
+
+    public IndexedHeap() {
+        heap = new int[INITIAL_CAPACITY];
+        fVals = new double[INITIAL_CAPACITY];
+        hVals = new double[INITIAL_CAPACITY];
+        ids = new long[INITIAL_CAPACITY];
+        slots = new int[INITIAL_CAPACITY];
+        Arrays.fill(slots, -1);
+        size = 0;
+    }
+
+    /**
+     * @return The number of queued handles.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return True if no handles are queued.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param handle The handle to look for.
+     * @return True if the handle is currently queued.
+     */
+    public boolean contains(int handle) {
+        return handle < slots.length && slots[handle] >= 0;
+    }
+
+    /**
+     * Queues a handle, or updates its key if it is already queued (decrease-key, although increasing the key is also allowed).
+     *
+     * @param handle A non-negative handle identifying the entry.
+     * @param f The f value of the entry.
+     * @param h The h value of the entry.
+     * @param id The ID of the entry, used to break ties.
+     */
+    public void push(int handle, double f, double h, long id) {
+        if (handle >= slots.length) {
+            int oldLength = slots.length;
+            slots = Arrays.copyOf(slots, Math.max(handle + 1, oldLength << 1));
+            Arrays.fill(slots, oldLength, slots.length, -1);
+        }
+
+        int slot = slots[handle];
+        if (slot < 0) {
+            if (size == heap.length) {
+                int capacity = heap.length << 1;
+                heap = Arrays.copyOf(heap, capacity);
+                fVals = Arrays.copyOf(fVals, capacity);
+                hVals = Arrays.copyOf(hVals, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+            siftUp(size++, handle, f, h, id);
+        } else if (less(f, h, id, fVals[slot], hVals[slot], ids[slot])) {
+            siftUp(slot, handle, f, h, id);
+        } else {
+            siftDown(slot, handle, f, h, id);
+        }
+    }
+
+    /**
+     * Removes the minimum entry.
+     *
+     * @return The handle of the minimum entry, or -1 if the heap is empty.
+     */
+    public int pop() {
+        if (size == 0) {
+            return -1;
+        }
+
+        int top = heap[0];
+        slots[top] = -1;
+        size--;
+        if (size > 0) {
+            siftDown(0, heap[size], fVals[size], hVals[size], ids[size]);
+        }
+        return top;
+    }
+
+    /**
+     * Removes a handle from the heap if it is queued.
+     *
+     * @param handle The handle to remove.
+     */
+    public void remove(int handle) {
+        if (!contains(handle)) {
+            return;
+        }
+
+        int slot = slots[handle];
+        slots[handle] = -1;
+        size--;
+        if (slot < size) {
+            int last = heap[size];
+            double f = fVals[size], h = hVals[size];
+            long id = ids[size];
+            if (less(f, h, id, fVals[slot], hVals[slot], ids[slot])) {
+                siftUp(slot, last, f, h, id);
+            } else {
+                siftDown(slot, last, f, h, id);
+            }
+        }
+    }
+
+    /**
+     * Removes all queued handles. This is proportional to the number of queued handles, not the number of handles ever seen.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            slots[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Entries are compared firstly by their f values, then their h values and finally their IDs.
+     */
+    private static boolean less(double f1, double h1, long id1, double f2, double h2, long id2) {
+        if (f1 != f2) {
+            return f1 < f2;
+        }
+
+        if (h1 != h2) {
+            return h1 < h2;
+        }
+
+        return id1 < id2;
+    }
+
+    /**
+     * Moves an entry from a slot towards the root until the heap property holds, then places it.
+     */
+    private void siftUp(int slot, int handle, double f, double h, long id) {
+        int parent;
+        while (slot > 0) {
+            parent = (slot - 1) / ARITY;
+            if (!less(f, h, id, fVals[parent], hVals[parent], ids[parent])) {
+                break;
+            }
+            place(slot, heap[parent], fVals[parent], hVals[parent], ids[parent]);
+            slot = parent;
+        }
+        place(slot, handle, f, h, id);
+    }
+
+    /**
+     * Moves an entry from a slot towards the leaves until the heap property holds, then places it.
+     */
+    private void siftDown(int slot, int handle, double f, double h, long id) {
+        int child, best, last;
+        while ((child = slot * ARITY + 1) < size) {
+            best = child;
+            last = Math.min(child + ARITY, size);
+            for (child++; child < last; child++) {
+                if (less(fVals[child], hVals[child], ids[child], fVals[best], hVals[best], ids[best])) {
+                    best = child;
+                }
+            }
+
+            if (!less(fVals[best], hVals[best], ids[best], f, h, id)) {
+                break;
+            }
+            place(slot, heap[best], fVals[best], hVals[best], ids[best]);
+            slot = best;
+        }
+        place(slot, handle, f, h, id);
+    }
+
+    private void place(int slot, int handle, double f, double h, long id) {
+        heap[slot] = handle;
+        fVals[slot] = f;
+        hVals[slot] = h;
+        ids[slot] = id;
+        slots[handle] = slot;
+    }
+}
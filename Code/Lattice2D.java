@@ -1,21 +1,33 @@
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.PriorityQueue;
 import java.util.Queue;
-import java.util.TreeSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 import javax.imageio.ImageIO;
 
-import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.FileWriter;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.time.Instant;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.time.Duration;
 
 /**
@@ -26,15 +38,45 @@ import java.time.Duration;
  * @version     1.0
  * 
  */
-public class Lattice2D {
+public class Lattice2D implements AutoCloseable {
 
     //Search Types
     public static final int SEARCH_TYPE_DFID = 0;   //Depth First Iterative Deepening (Tree-Search)
     public static final int SEARCH_TYPE_ASID = 1;   //A* Iterative Deepening (Tree-Search)
     public static final int SEARCH_TYPE_AS = 2;     //A* (Graph-Search)
     public static final int SEARCH_TYPE_BDAS = 3;   //Bi-Directional A* (Graph-Search)
+    public static final int SEARCH_TYPE_JPS = 4;    //Jump Point Search (Graph-Search)
+    public static final int SEARCH_TYPE_BDJPS = 5;  //Bi-Directional Jump Point Search (Graph-Search)
+    //The parallel search types probe the lattice from several threads, serializing the calls unless the probe is thread-safe (see LatticeProbe.isThreadSafe).
+    public static final int SEARCH_TYPE_PBDAS = 6;  //Parallel Bi-Directional A*, one thread per frontier (Graph-Search)
+    public static final int SEARCH_TYPE_HDAS = 7;   //Hash Distributed A*, the state space is split between several threads (Graph-Search)
+
+    //Open List Types (Graph-Searches only)
+    public static final int OPEN_LIST_HEAP = 0;     //Indexed heap, works with any hueristic
+    public static final int OPEN_LIST_BUCKET = 1;   //Bucket queue for whole number hueristics, falls back to the heap otherwise
  
 
+    //Lattices with more positions than this index their closed sets with a hash map instead of a dense array
+    private static final long DENSE_CLOSED_LIMIT = 1L << 25;
+
+    //Images with more pixels than this are rendered by several threads
+    private static final long PARALLEL_RENDER_PIXELS = 1L << 18;
+
+    //Images with more pixels than this are not held in memory but streamed to their file a band of rows at a time
+    private static final long IMAGE_PIXEL_LIMIT = 1L << 25;
+
+    //Positions coloured at once when an image is streamed
+    private static final long STREAM_BAND_POSITIONS = 1L << 20;
+
+    //Jump Point Search
+    private static final int JUMP_LIMIT = 1 << 12;      //Longest jump before a jump point is made regardless (keeps unbounded lattices finite)
+    private static final int NO_JUMP = Integer.MIN_VALUE;
+
+    //Hash Distributed A*
+    private static final int HASH_BATCH = 64;               //Nodes sent to another worker in one message
+    private static final int HASH_FLUSH_INTERVAL = 64;      //Expansions between sending partially filled messages
+    private static final long HASH_IDLE_NANOS = 50_000;     //Longest wait of an idle worker before it looks for messages again
+
     //Visualization Colors
     private static final int COLOR_OBS = 0xff03071e;
     private static final int COLOR_EMPTY = 0xffffffff;
@@ -46,206 +88,241 @@ public class Lattice2D {
         return (long) (((long)pos[0]) << 32) | (pos[1] & 0xffffffffL);
     }
 
+    public static long getLongPos(int x, int y) {
+        return (((long) x) << 32) | (y & 0xffffffffL);
+    }
+
     /**
-     * A simple 5 parameter Function interface to use when creating hueristic lambda functions.
+     * A simple 5 parameter Function interface to use when creating hueristic lambda functions. Such legacy hueristics are
+     * still accepted by solve, but the primitive Heuristic interface is preferred.
      */
     @FunctionalInterface
     public static interface Function5<One, Two, Three, Four, Five, Six> {
         public Six apply(One one, Two two, Three three, Four four, Five five);
     }
 
+    /**
+     * @param positions An array of [x, y] positions.
+     * @param dim 0 for the x coordinates and 1 for the y coordinates.
+     * @return One coordinate of every position, as a primitive array.
+     */
+    private static int[] coordinates(int[][] positions, int dim) {
+        int[] ret = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            ret[i] = positions[i][dim];
+        }
+        return ret;
+    }
     
     /**
      * Straight Line Hueristic Function
      */
-    public static Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> hSLD = (probe, pos, parent, start, end) -> {
-        if (end.length < 1) {
-            return Double.POSITIVE_INFINITY;
-        }
-
-        double min = Math.sqrt(Math.pow(pos[0] - end[0][0], 2) + Math.pow(pos[1] - end[0][1], 2));
-
-        for (int i = 1; i < end.length; i++) {
-            min = Math.min(min, Math.sqrt(Math.pow(pos[0] - end[i][0], 2) + Math.pow(pos[1] - end[i][1], 2)));
-        }
-
-        return min;
+    public static Heuristic hSLD = (probe, start, end) -> {
+        int[] endX = coordinates(end, 0), endY = coordinates(end, 1);
+        return (x, y, parentX, parentY) -> {
+            double min = Double.POSITIVE_INFINITY;
+            double dx, dy;
+            for (int i = 0; i < endX.length; i++) {
+                dx = x - endX[i];
+                dy = y - endY[i];
+                min = Math.min(min, Math.sqrt(dx * dx + dy * dy));
+            }
+            return min;
+        };
     };
 
     /**
      * Manhattan Heuristic Function
      */
-    public static Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> hMH = (probe, pos, parent, start, end) -> {
-        double min = Double.POSITIVE_INFINITY;
-
-        for (int[]  endPos : end) {
-            min = Math.min(min, Math.abs(pos[0] - endPos[0]) + Math.abs(pos[1] - endPos[1]));
-        }
-
-        return min;
+    public static Heuristic hMH = (probe, start, end) -> {
+        int[] endX = coordinates(end, 0), endY = coordinates(end, 1);
+        return (x, y, parentX, parentY) -> {
+            double min = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < endX.length; i++) {
+                min = Math.min(min, Math.abs(x - endX[i]) + Math.abs(y - endY[i]));
+            }
+            return min;
+        };
     };
 
     /**
      * Manhattan Heuristic Function (Preferring equal decrease in x and y). Not intended for use with multiple start and endpoints (use either but not both).
      */
-    public static Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> hMHEq = (probe, pos, parent, start, end) -> {
-        double ret = Double.POSITIVE_INFINITY;
-        double curr, ratio;
+    public static Heuristic hMHEq = (probe, start, end) -> {
+        int[] startX = coordinates(start, 0), startY = coordinates(start, 1);
+        int[] endX = coordinates(end, 0), endY = coordinates(end, 1);
+        return (x, y, parentX, parentY) -> {
+            double ret = Double.POSITIVE_INFINITY;
+            double curr, ratio;
+
+            for (int s = 0; s < startX.length; s++) {
+                for (int e = 0; e < endX.length; e++) {
+                    ratio = Math.pow(startX[s] - endX[e], 2) + Math.pow(startY[s] - endY[e], 2);
+
+                    if (ratio == 0.0) {
+                        return 0.0;
+                    }
+                    ratio /= Math.pow(x - endX[e], 2) + Math.pow(y - endY[e], 2) + Math.pow(startX[s] - x, 2) + Math.pow(startY[s] - y, 2);
+                    curr =  Math.abs(x - endX[e]) + Math.abs(y - endY[e]) - 0.5 * ratio;
 
-        for (int[] startPos : start) {
-            for (int[] endPos : end) {
-                ratio = Math.pow(startPos[0] - endPos[0], 2) + Math.pow(startPos[1] - endPos[1], 2);
-                
-                if (ratio == 0.0) {
-                    return 0.0;
+                    ret = Math.min(ret, curr);
                 }
-                ratio /= Math.pow(pos[0] - endPos[0], 2) + Math.pow(pos[1] - endPos[1], 2) + Math.pow(startPos[0] - pos[0], 2) + Math.pow(startPos[1] - pos[1], 2);
-                curr =  Math.abs(pos[0] - endPos[0]) + Math.abs(pos[1] - endPos[1]) - 0.5 * ratio;
-
-                ret = Math.min(ret, curr);
             }
-        }
 
-        return ret;
+            return ret;
+        };
     };
 
     /**
      * A modified Manhattan Distance Function that attempts to evade nooks and crannies.
      */
-    public static Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> hMHNook = (probe, pos, parent, start, end) -> {
-            
-        if (parent != null) {
-            int[][] scanMin = new int[2][2];
-            int[] ppos = parent.pos;
-            int[] parity = pos.clone();
-            parity[0] -= ppos[0];
-            parity[1] -= ppos[1];
-            
-            int scanCount = 0, scanSum = 0;
-            counterClockwise(parity, 2);
-
-            for (int i = 0; i < 2; i++) {
-                scanMin[i][0] = ppos[0];
-                scanMin[i][1] = ppos[1];
-                for (; scanSum < 15; scanSum++) {
-                    scanMin[i][0] += parity[0];
-                    scanMin[i][1] += parity[1];
-                    if (probe.apply(scanMin[i])) {
-                        scanCount++;
-                        break;
+    public static Heuristic hMHNook = (probe, start, end) -> {
+        int[] endX = coordinates(end, 0), endY = coordinates(end, 1);
+
+        //Scratch space, reused by every estimate of this search
+        int[][] scanMin = new int[2][2];
+        int[] ppos = new int[2];
+        int[] parity = new int[2];
+        int[] backupParity = new int[2];
+        int[] windingNumbers = new int[end.length];
+        int[] currQuad = new int[end.length];
+
+        return (x, y, parentX, parentY) -> {
+            if (parentX != x || parentY != y) {
+                ppos[0] = parentX;
+                ppos[1] = parentY;
+                parity[0] = x - parentX;
+                parity[1] = y - parentY;
+
+                int scanCount = 0, scanSum = 0;
+                counterClockwise(parity, 2);
+
+                for (int i = 0; i < 2; i++) {
+                    scanMin[i][0] = ppos[0];
+                    scanMin[i][1] = ppos[1];
+                    for (; scanSum < 15; scanSum++) {
+                        scanMin[i][0] += parity[0];
+                        scanMin[i][1] += parity[1];
+                        if (probe.isBlocked(scanMin[i][0], scanMin[i][1])) {
+                            scanCount++;
+                            break;
+                        }
                     }
+                    parityInvert(parity);
                 }
-                parityInvert(parity);
-            }
-            
-            if (scanCount == 2) {
-                int count = 0, max = 50;
-                if (count < max) {
-                    int tempQuad;
-                    int[] windingNumbers = new int[end.length];
-                    int[] currQuad = new int[end.length];
-                    for (int endi = 0; endi < end.length; endi++) {
-                        currQuad[endi] = getRelativeQuad(end[endi], ppos);
-                        tempQuad = getRelativeQuad(end[endi], scanMin[0]);
-                        windingNumbers[endi] += getQuadJump(currQuad[endi], tempQuad);
-                        currQuad[endi] = tempQuad;
-                    }
-                    int rotations = 7;
-                    boolean endFound = false;
-                    int[] backupParity = parity.clone();
-                    int angleChange = 0;
-                    while (count < max) {
-                        parityInvert(parity);
-                        angleChange += 4;
-                        rotations = 0;
-                        
-                        while (rotations < 7) {
-                            counterClockwise(parity, 1);
-                            angleChange -= 1;
-                            scanMin[0][0] += parity[0];
-                            scanMin[0][1] += parity[1];
-                            
-                            if (probe.apply(scanMin[0])) {
-                                for (int endi = 0; endi < end.length; endi++) {
-                                    tempQuad = getRelativeQuad(end[endi], scanMin[0]);
-                                    windingNumbers[endi] += getQuadJump(currQuad[endi], tempQuad);
-                                    currQuad[endi] = tempQuad;
-                                }
 
-                                if (scanMin[0][0] == scanMin[1][0] && scanMin[0][1] == scanMin[1][1]) {
-                                    parityInvert(parity);
-                                    angleChange += 4;
-
-                                    while (parity[0] != backupParity[0] || parity[1] != backupParity[1]) {
-                                        counterClockwise(parity, 1);
-                                        angleChange -= 1;
+                if (scanCount == 2) {
+                    int count = 0, max = 50;
+                    if (count < max) {
+                        int tempQuad;
+                        Arrays.fill(windingNumbers, 0);
+                        for (int endi = 0; endi < end.length; endi++) {
+                            currQuad[endi] = getRelativeQuad(end[endi], ppos);
+                            tempQuad = getRelativeQuad(end[endi], scanMin[0]);
+                            windingNumbers[endi] += getQuadJump(currQuad[endi], tempQuad);
+                            currQuad[endi] = tempQuad;
+                        }
+                        int rotations = 7;
+                        boolean endFound = false;
+                        backupParity[0] = parity[0];
+                        backupParity[1] = parity[1];
+                        int angleChange = 0;
+                        while (count < max) {
+                            parityInvert(parity);
+                            angleChange += 4;
+                            rotations = 0;
+
+                            while (rotations < 7) {
+                                counterClockwise(parity, 1);
+                                angleChange -= 1;
+                                scanMin[0][0] += parity[0];
+                                scanMin[0][1] += parity[1];
+
+                                if (probe.isBlocked(scanMin[0][0], scanMin[0][1])) {
+                                    for (int endi = 0; endi < end.length; endi++) {
+                                        tempQuad = getRelativeQuad(end[endi], scanMin[0]);
+                                        windingNumbers[endi] += getQuadJump(currQuad[endi], tempQuad);
+                                        currQuad[endi] = tempQuad;
                                     }
 
-                                    if (angleChange == 8) {
-                                        endFound = true;
+                                    if (scanMin[0][0] == scanMin[1][0] && scanMin[0][1] == scanMin[1][1]) {
+                                        parityInvert(parity);
+                                        angleChange += 4;
+
+                                        while (parity[0] != backupParity[0] || parity[1] != backupParity[1]) {
+                                            counterClockwise(parity, 1);
+                                            angleChange -= 1;
+                                        }
+
+                                        if (angleChange == 8) {
+                                            endFound = true;
+                                        }
+
                                     }
-                                    
+
+                                    break;
                                 }
-    
+                                scanMin[0][0] -= parity[0];
+                                scanMin[0][1] -= parity[1];
+                                rotations++;
+                            }
+                            if (rotations == 7 || endFound) {
                                 break;
                             }
-                            scanMin[0][0] -= parity[0];
-                            scanMin[0][1] -= parity[1];
-                            rotations++;
-                        }
-                        if (rotations == 7 || endFound) {
-                            break;
-                        }
-                        count++;
-                    }
-                
-                    if (endFound) {  
-                        for (int endi = 0; endi < end.length; endi++) {
-                            tempQuad = getRelativeQuad(end[endi], ppos);
-                            windingNumbers[endi] += getQuadJump(currQuad[endi], tempQuad);
-                            currQuad[endi] = tempQuad;
+                            count++;
                         }
-                        boolean usefulArea = false;
-                        for (int wind : windingNumbers) {
-                            if (wind != 0) {  
-                                usefulArea = true;
-                                break;
+
+                        if (endFound) {
+                            for (int endi = 0; endi < end.length; endi++) {
+                                tempQuad = getRelativeQuad(end[endi], ppos);
+                                windingNumbers[endi] += getQuadJump(currQuad[endi], tempQuad);
+                                currQuad[endi] = tempQuad;
+                            }
+                            boolean usefulArea = false;
+                            for (int wind : windingNumbers) {
+                                if (wind != 0) {
+                                    usefulArea = true;
+                                    break;
+                                }
+                            }
+                            if (!usefulArea) {
+                                return Double.POSITIVE_INFINITY;
                             }
                         }
-                        if (!usefulArea) {
-                            return Double.POSITIVE_INFINITY;
-                        }     
                     }
                 }
             }
-        }
-        double min = Double.POSITIVE_INFINITY;
-        for (int[] endPos : end) {
-            min = Math.min(min, Math.abs(pos[0] - endPos[0]) + Math.abs(pos[1] - endPos[1]));
-        }
+            double min = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < endX.length; i++) {
+                min = Math.min(min, Math.abs(x - endX[i]) + Math.abs(y - endY[i]));
+            }
 
-        return min;
+            return min;
+        };
     };
 
     
      /**
      * Breadth-First Search Hueristic Function
      */
-    public static Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> hBFS = (probe, pos, parent, start, end) -> {
-        for (int[] endPos : end) {
-            if (endPos[0] == pos[0] && endPos[1] == pos[1]) {
-                return 0.0;
+    public static Heuristic hBFS = (probe, start, end) -> {
+        int[] endX = coordinates(end, 0), endY = coordinates(end, 1);
+        return (x, y, parentX, parentY) -> {
+            for (int i = 0; i < endX.length; i++) {
+                if (endX[i] == x && endY[i] == y) {
+                    return 0.0;
+                }
             }
-        }
 
-        return 1.0;
+            return 1.0;
+        };
     };
 
      /**
      * Uniform Cost Hueristic Function (For Dijkstra and Depth-First Iterative Deepening)
      */
-    public static Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> hNULL = (probe, pos, parent, start, end) -> {
-       return 0.0;
+    public static Heuristic hNULL = (probe, start, end) -> {
+        return (x, y, parentX, parentY) -> 0.0;
     };
 
     /**
@@ -349,7 +426,7 @@ public class Lattice2D {
      * functionality with respect to exporting the data.
      */
     public static class SearchResults {
-        public Function<int[], Boolean> probe;
+        public LatticeProbe probe;
         public int[][] start;
         public int[][] end;
         public LinkedList<int[]> path;
@@ -359,13 +436,21 @@ public class Lattice2D {
         public ArrayList<Long> leftExplored = null;
         public ArrayList<Long> rightExplored = null;
         public ArrayList<Long> timeTaken = null;
-        public int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
-        public BufferedImage img;
         public long totalExplore = 0;
         public long totalTime = 0;
+        public SearchStats stats = new SearchStats();   //Hot path counters, set by the search
+
+        private int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;   //Set by bound()
+        private BufferedImage img;                       //Set by image()
+
+        private long[] leftPositions, rightPositions;    //rowKey of every explored position, kept for rendering (sorted by bound())
+        private int leftCount, rightCount;
+        private long[] pathPositions;                    //rowKey of every path position, set and sorted by bound()
+        private boolean bounded = false, rendered = false;
 
         /**
-         * Initializes the class and stores all the search data.
+         * Initializes the class and stores all the search data. The explored positions are copied out of the closed sets (which
+         * may be reused by the next search), but the image is only rendered when it is first needed (see image()).
          * 
          * @param probe The relevant probe function.
          * @param start The start position(s).
@@ -380,7 +465,7 @@ public class Lattice2D {
          * @param rightExplored The total noded explored from the end positions at each right depth.
          * @param timeTaken The time taken (in milliseconds) for each depth search.
          */
-        public SearchResults(Function<int[], Boolean> probe, int[][] start, int[][] end, LinkedList<int[]> path, double pathLen, HashMap<Long, Node> leftClosed, HashMap<Long, Node> rightClosed,
+        public SearchResults(LatticeProbe probe, int[][] start, int[][] end, LinkedList<int[]> path, double pathLen, ClosedSet leftClosed, ClosedSet rightClosed,
                             ArrayList<Double> leftDepths, ArrayList<Double> rightDepths, ArrayList<Long> leftExplored, ArrayList<Long> rightExplored, ArrayList<Long> timeTaken) {
             this.probe = probe;
             this.start = start;
@@ -403,165 +488,307 @@ public class Lattice2D {
                 totalTime += timeMilli;
             }
 
-            for (int[] pos : start) {
-                if (pos[0] < minX) {
-                    minX = pos[0];
+            leftPositions = new long[leftClosed.handleCount()];
+            for (int handle = 0; handle < leftClosed.handleCount(); handle++) {
+                if (leftClosed.isIndexed(handle)) {
+                    leftPositions[leftCount++] = rowKey(leftClosed.x(handle), leftClosed.y(handle));
                 }
-
-                if (pos[0] > maxX) {
-                    maxX = pos[0];
+            }
+            rightPositions = new long[rightClosed.handleCount()];
+            for (int handle = 0; handle < rightClosed.handleCount(); handle++) {
+                if (rightClosed.isIndexed(handle)) {
+                    rightPositions[rightCount++] = rowKey(rightClosed.x(handle), rightClosed.y(handle));
                 }
+            }
+        }
 
-                if (pos[1] < minY) {
-                    minY = pos[1];
-                }
+        /**
+         * @param left True for the positions explored from the start positions, False for those explored from the end positions.
+         * @return The getLongPos of every explored position, in no particular order.
+         */
+        synchronized long[] explored(boolean left) {
+            long[] positions = left ? leftPositions : rightPositions;
+            long[] explored = new long[left ? leftCount : rightCount];
+            for (int i = 0; i < explored.length; i++) {
+                explored[i] = getLongPos((int) positions[i], (int) (positions[i] >> 32));
+            }
+            return explored;
+        }
 
-                if (pos[1] > maxY) {
-                    maxY = pos[1];
-                }
+        /**
+         * @return The smallest x coordinate of the start, end, path and explored positions, less a margin of 2.
+         */
+        public synchronized int getMinX() {
+            bound();
+            return minX;
+        }
+
+        /**
+         * @return The largest x coordinate of the start, end, path and explored positions, plus a margin of 2.
+         */
+        public synchronized int getMaxX() {
+            bound();
+            return maxX;
+        }
+
+        /**
+         * @return The smallest y coordinate of the start, end, path and explored positions, less a margin of 2.
+         */
+        public synchronized int getMinY() {
+            bound();
+            return minY;
+        }
+
+        /**
+         * @return The largest y coordinate of the start, end, path and explored positions, plus a margin of 2.
+         */
+        public synchronized int getMaxY() {
+            bound();
+            return maxY;
+        }
+
+        /**
+         * Sets the bounding box (minX, maxX, minY, maxY) of the start, end, path and explored positions, with a margin of 2, and
+         * sorts the positions by row for rendering.
+         */
+        private synchronized void bound() {
+            if (bounded) {
+                return;
             }
+            bounded = true;
 
+            for (int[] pos : start) {
+                includeInBounds(pos[0], pos[1]);
+            }
             for (int[] pos : end) {
-                if (pos[0] < minX) {
-                    minX = pos[0];
+                includeInBounds(pos[0], pos[1]);
+            }
+            pathPositions = new long[path == null ? 0 : path.size()];
+            if (path != null) {
+                int i = 0;
+                for (int[] pos : path) {
+                    includeInBounds(pos[0], pos[1]);
+                    pathPositions[i++] = rowKey(pos[0], pos[1]);
                 }
+            }
+            for (int i = 0; i < leftCount; i++) {
+                includeInBounds((int) leftPositions[i], (int) (leftPositions[i] >> 32));
+            }
+            for (int i = 0; i < rightCount; i++) {
+                includeInBounds((int) rightPositions[i], (int) (rightPositions[i] >> 32));
+            }
 
-                if (pos[0] > maxX) {
-                    maxX = pos[0];
-                }
+            minX -= 2;
+            maxX += 2;
+            minY -= 2;
+            maxY += 2;
 
-                if (pos[1] < minY) {
-                    minY = pos[1];
-                }
+            Arrays.sort(pathPositions);
+            Arrays.sort(leftPositions, 0, leftCount);
+            Arrays.sort(rightPositions, 0, rightCount);
+        }
+
+        /**
+         * Renders the image of the search on first use (see genImage).
+         *
+         * @return The image, or null if it is too large to hold in memory (genImage then streams it instead) or could not be rendered.
+         */
+        public synchronized BufferedImage image() {
+            if (rendered) {
+                return img;
+            }
+            rendered = true;
+            bound();
 
-                if (pos[1] > maxY) {
-                    maxY = pos[1];
-                }   
+            int diffX = maxX - minX + 1;
+            int diffY = maxY - minY + 1;
+            int scale = scale(diffX, diffY);
+            if ((long) diffX * scale * diffY * scale > IMAGE_PIXEL_LIMIT) {
+                return null;
             }
 
-            if (path != null) {
-                for (int[] pos : path) {
-                    if (pos[0] < minX) {
-                        minX = pos[0];
+            try {
+                int[] colors = new int[diffX * diffY];
+                classify(minY, diffY, colors);
+
+                //Scale every position up to a scale x scale block, written straight into the pixels of the image.
+                int imageWidth = diffX * scale;
+                BufferedImage img = new BufferedImage(imageWidth, diffY * scale, BufferedImage.TYPE_INT_RGB);
+                int[] pixels = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+                renderRows(diffY, imageWidth * scale, y -> {
+                    int rowStart = y * scale * imageWidth;
+                    for (int x = 0; x < diffX; x++) {
+                        Arrays.fill(pixels, rowStart + x * scale, rowStart + (x + 1) * scale, colors[y * diffX + x] & 0xffffff);
                     }
-
-                    if (pos[0] > maxX) {
-                        maxX = pos[0];
+                    for (int copy = 1; copy < scale; copy++) {
+                        System.arraycopy(pixels, rowStart, pixels, rowStart + copy * imageWidth, imageWidth);
                     }
+                });
 
-                    if (pos[1] < minY) {
-                        minY = pos[1];
-                    }
+                this.img = img;
+            } catch (Exception ex) {
+                this.img = null;
+            }
+            return img;
+        }
 
-                    if (pos[1] > maxY) {
-                        maxY = pos[1];
-                    }
-                }
+        /**
+         * @return The pixels per position of an image of the search, the smallest power of two that makes the image at least 800 pixels on a side.
+         */
+        private static int scale(int diffX, int diffY) {
+            int scale = 1;
+            while (diffX * scale < 800 && diffY * scale < 800) {
+                scale <<= 1;
             }
+            return scale;
+        }
 
-            int [] pos;
-            for (Node n : leftClosed.values()) {
-                pos = n.pos;
-                if (pos[0] < minX) {
-                    minX = pos[0];
-                }
+        private void includeInBounds(int x, int y) {
+            if (x < minX) {
+                minX = x;
+            }
 
-                if (pos[0] > maxX) {
-                    maxX = pos[0];
-                }
+            if (x > maxX) {
+                maxX = x;
+            }
 
-                if (pos[1] < minY) {
-                    minY = pos[1];
-                }
+            if (y < minY) {
+                minY = y;
+            }
 
-                if (pos[1] > maxY) {
-                    maxY = pos[1];
-                }
+            if (y > maxY) {
+                maxY = y;
             }
+        }
 
-            for (Node n : rightClosed.values()) {
-                pos = n.pos;
-                if (pos[0] < minX) {
-                    minX = pos[0];
-                }
+        /**
+         * Renders rows of an image, in parallel on the common fork-join pool if the image is large.
+         *
+         * @param rows The number of rows.
+         * @param rowWork The number of pixels (or grid probes) per row.
+         * @param row Renders one row.
+         */
+        private static void renderRows(int rows, int rowWork, IntConsumer row) {
+            IntStream range = IntStream.range(0, rows);
+            if ((long) rows * rowWork >= PARALLEL_RENDER_PIXELS) {
+                range = range.parallel();
+            }
+            range.forEach(row);
+        }
 
-                if (pos[0] > maxX) {
-                    maxX = pos[0];
+        /**
+         * Colours a band of rows of the bounding box: obstacles first, then explored positions (the left frontier over the right
+         * one), then the path. bound() must have been called.
+         *
+         * @param firstY The y coordinate of the first row of the band.
+         * @param rows The number of rows in the band.
+         * @param colors Receives the colour of every position of the band, row by row.
+         */
+        private void classify(int firstY, int rows, int[] colors) {
+            int diffX = maxX - minX + 1;
+            IntConsumer row = y -> {
+                for (int x = 0; x < diffX; x++) {
+                    colors[y * diffX + x] = probe.isBlocked(minX + x, firstY + y) ? COLOR_OBS : COLOR_EMPTY;
                 }
-
-                if (pos[1] < minY) {
-                    minY = pos[1];
+            };
+            if (probe.isThreadSafe()) {
+                renderRows(rows, diffX, row);
+            } else {
+                for (int y = 0; y < rows; y++) {
+                    row.accept(y);
                 }
+            }
+            paintBand(colors, diffX, firstY, rows, rightPositions, rightCount, COLOR_RIGHT);
+            paintBand(colors, diffX, firstY, rows, leftPositions, leftCount, COLOR_LEFT);
+            paintBand(colors, diffX, firstY, rows, pathPositions, pathPositions.length, COLOR_ROAD);
+        }
 
-                if (pos[1] > maxY) {
-                    maxY = pos[1];
+        /**
+         * Colours the positions of a sorted list that fall in a band of rows, except where the band has an obstacle.
+         */
+        private void paintBand(int[] colors, int diffX, int firstY, int rows, long[] positions, int count, int color) {
+            int i = Arrays.binarySearch(positions, 0, count, rowKey(0, firstY));
+            int cell;
+            for (i = i < 0 ? -i - 1 : i; i < count && (int) (positions[i] >> 32) < firstY + rows; i++) {
+                cell = ((int) (positions[i] >> 32) - firstY) * diffX + ((int) positions[i] - minX);
+                if (colors[cell] != COLOR_OBS) {
+                    colors[cell] = color;
                 }
             }
+        }
 
+        /**
+         * @return A key that sorts positions row by row (positions within a row are not sorted by x).
+         */
+        private static long rowKey(int x, int y) {
+            return (((long) y) << 32) | (x & 0xffffffffL);
+        }
 
-            minX -= 2;
-            maxX += 2;
-            minY -= 2;
-            maxY += 2;
-            
-
+        /**
+         * Writes an image of the search to a .png file a band of rows at a time, so the whole image is never held in memory.
+         * Either every position is drawn as a scale x scale block of pixels, or every block x block positions are averaged into
+         * one pixel (red if the path crosses the block).
+         *
+         * @param fname The name of the file to save the image to.
+         * @param scale The pixels per position, 1 when downsampling.
+         * @param block The positions per pixel, 1 when scaling up.
+         */
+        private void streamImage(String fname, int scale, int block) throws IOException {
+            bound();
             int diffX = maxX - minX + 1;
             int diffY = maxY - minY + 1;
-
-            try {
-                int scale = 1, xadd, yadd;
-                while (diffX * scale < 800 && diffY * scale < 800) {
-                    scale <<= 1;
-                }
-                BufferedImage img = new BufferedImage(diffX * scale, diffY * scale, BufferedImage.TYPE_INT_RGB);
-                pos = new int[2];
-               
-                int color;
-                for (int y = 0; y < diffY; y++) {
-                    pos[1] = minY + y;
-                    for (int x = 0; x < diffX; x++) {
-                        pos[0] = minX + x;
-                        
-                        if (probe.apply(pos)) {
-                            color = COLOR_OBS;
-                        } else if (leftClosed.containsKey(getLongPos(pos))) {
-                            color = COLOR_LEFT;
-                        } else if (rightClosed.containsKey(getLongPos(pos))) {
-                            color = COLOR_RIGHT;
-                        } else {
-                            color = COLOR_EMPTY;
-                        }
-
-                       
-                        for (yadd = 0; yadd < scale; yadd++) {
-                            for (xadd = 0; xadd < scale; xadd++) {
-                                img.setRGB(scale * x + xadd, scale * y + yadd, color);
-                            }     
+            int width = block > 1 ? (diffX + block - 1) / block : diffX * scale;
+            int height = block > 1 ? (diffY + block - 1) / block : diffY * scale;
+            int bandRows = (int) Math.min(diffY, block * Math.max(1, STREAM_BAND_POSITIONS / ((long) diffX * block)));
+            int[] colors = new int[diffX * bandRows];
+            int[] pixels = new int[width];
+            long[] sums = new long[block > 1 ? width * 3 : 0];
+            boolean[] road = new boolean[block > 1 ? width : 0];
+
+            try (PngWriter png = new PngWriter(new BufferedOutputStream(new FileOutputStream(fname + ".png")), width, height)) {
+                int rows, color, pixel;
+                for (int firstY = minY; firstY <= maxY; firstY += bandRows) {
+                    rows = Math.min(bandRows, maxY - firstY + 1);
+                    classify(firstY, rows, colors);
+
+                    if (block == 1) {
+                        for (int y = 0; y < rows; y++) {
+                            for (int x = 0; x < diffX; x++) {
+                                Arrays.fill(pixels, x * scale, (x + 1) * scale, colors[y * diffX + x]);
+                            }
+                            for (int copy = 0; copy < scale; copy++) {
+                                png.writeRow(pixels, 0);
+                            }
                         }
-                        
-                        
+                        continue;
                     }
-                }
 
-                    if (path != null) {
-                        int x, y;
-                        for (int[] pathPos : path) {
-                            try {
-                                x = pathPos[0] - minX;
-                                y = pathPos[1] - minY;
-                                for (yadd = 0; yadd < scale; yadd++) {
-                                    for (xadd = 0; xadd < scale; xadd++) {
-                                        img.setRGB(scale * x + xadd, scale * y + yadd, COLOR_ROAD);
-                                    }     
-                                }
-                            } catch (Exception ex) {}
+                    //Average every block x block positions (bands hold whole blocks of rows, except maybe the last band).
+                    for (int blockY = 0; blockY < rows; blockY += block) {
+                        Arrays.fill(sums, 0);
+                        Arrays.fill(road, false);
+                        for (int y = blockY; y < Math.min(rows, blockY + block); y++) {
+                            for (int x = 0; x < diffX; x++) {
+                                color = colors[y * diffX + x];
+                                pixel = x / block;
+                                road[pixel] |= color == COLOR_ROAD;
+                                sums[pixel * 3] += (color >>> 16) & 0xff;
+                                sums[pixel * 3 + 1] += (color >>> 8) & 0xff;
+                                sums[pixel * 3 + 2] += color & 0xff;
+                            }
                         }
+                        long cells;
+                        for (pixel = 0; pixel < width; pixel++) {
+                            if (road[pixel]) {
+                                pixels[pixel] = COLOR_ROAD;
+                                continue;
+                            }
+                            cells = (long) (Math.min(diffX, (pixel + 1) * block) - pixel * block) * (Math.min(rows, blockY + block) - blockY);
+                            pixels[pixel] = (int) (sums[pixel * 3] / cells) << 16 | (int) (sums[pixel * 3 + 1] / cells) << 8 | (int) (sums[pixel * 3 + 2] / cells);
+                        }
+                        png.writeRow(pixels, 0);
                     }
-                
-
-                this.img = img;
-            } catch (Exception ex) {
-                this.img = null;
+                }
             }
         }
 
@@ -572,17 +799,41 @@ public class Lattice2D {
 
         /**
          * Generates a .png image representing the nodes in the frontier and explored nodes (if present) (Green from start and Blue from end), as well as the optimal path (Red) if present.
+         * The image is rendered the first time it is generated, and images too large to hold in memory are written a band of rows at a time.
          *
          * @param fname the name of the file to save the image to.
          */
         public void genImage(String fname) {
-           
-            if (img == null) {
-                return;
+            try {
+                BufferedImage img = image();
+                if (img != null) {
+                    ImageIO.write(img, "png",  new File(fname + ".png"));
+                } else {
+                    bound();
+                    streamImage(fname, scale(maxX - minX + 1, maxY - minY + 1), 1);
+                }
+            } catch (Exception ex) {
+                ex.printStackTrace();
             }
+        }
 
+        /**
+         * Generates a .png density heatmap of the search, for searches too large to view a position per pixel. Every pixel
+         * averages the colours of a square block of positions (so dense exploration shows as solid colour), and blocks that the
+         * optimal path crosses are drawn Red. The image is written a band at a time, so memory stays bounded however large the
+         * search is.
+         *
+         * @param fname the name of the file to save the image to.
+         * @param maxSize The largest width or height of the image in pixels.
+         */
+        public void genHeatmap(String fname, int maxSize) {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("A heatmap needs at least one pixel: " + maxSize);
+            }
             try {
-                ImageIO.write(img, "png",  new File(fname + ".png"));
+                bound();
+                int longest = Math.max(maxX - minX + 1, maxY - minY + 1);
+                streamImage(fname, 1, (longest + maxSize - 1) / maxSize);
             } catch (Exception ex) {
                 ex.printStackTrace();
             }
@@ -601,6 +852,8 @@ public class Lattice2D {
                 int i = 0;
                 boolean tryNext = true;
                 int [] pos;
+                long[] statValues = stats.values();
+                Iterator<int[]> pathPositions = path == null ? null : path.iterator();
                 while(tryNext) {
                     tryNext = false;
                     if (i == 0) {
@@ -619,13 +872,18 @@ public class Lattice2D {
                         csvWriter.append(Double.toString(pathLen));
                         csvWriter.append(",");
                         tryNext = true;
+                    } else if (i < 3 + SearchStats.LABELS.length) {
+                        csvWriter.append(SearchStats.LABELS[i - 3] + ":,");
+                        csvWriter.append(Long.toString(statValues[i - 3]));
+                        csvWriter.append(",");
+                        tryNext = true;
                     } else {
                         csvWriter.append(",,");
                     }
                     csvWriter.append(",");
 
-                    if (path != null && !path.isEmpty()) {
-                        pos = path.pollFirst();
+                    if (pathPositions != null && pathPositions.hasNext()) {
+                        pos = pathPositions.next();
                         csvWriter.append(Integer.toString(pos[0]));
                         csvWriter.append(",");
                         csvWriter.append(Integer.toString(pos[1]));
@@ -672,6 +930,19 @@ public class Lattice2D {
             } catch (Exception ex) {}
         }
 
+        /**
+         * Generates a binary results file (see ResultsFile) holding the path, the per depth data and the explored positions.
+         *
+         * @param fname the name of the file to save the results to.
+         */
+        public void genBinary(String fname) {
+            try (ResultsFile.Writer writer = ResultsFile.create(fname + ".l2dr")) {
+                writer.append(this);
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+        }
+
         /**
          * Generates a folder with both the image and the csv data of a search.
          * 
@@ -689,6 +960,70 @@ public class Lattice2D {
 
     }
 
+    /**
+     * The hot path counters of a single search, for tuning. Every search collects them (see SearchResults.stats), and the
+     * parallel searches add up the counters of all their threads.
+     */
+    public static class SearchStats {
+        public static final String[] LABELS = {"Probe Calls", "Hueristic Calls", "Nodes Generated", "Nodes Expanded",
+            "Open List Inserts", "Open List Removes", "Decrease Keys", "Stale Pops", "Re-opens", "Peak Open Size",
+            "Peak Closed Size", "Setup Time (ns)", "Search Time (ns)", "Path Time (ns)"};
+
+        public long probeCalls = 0;         //Positions looked up by the search itself (not by the hueristics), through the probe or the packed grid
+        public long heuristicCalls = 0;     //Hueristic estimates
+        public long generated = 0;          //Neighbours (or jump points) generated by expansions
+        public long expanded = 0;           //Nodes expanded (the total nodes explored)
+        public long openInserts = 0;        //Nodes pushed onto an open list they were not queued in
+        public long openRemoves = 0;        //Nodes popped from an open list (or the iterative deepening stack)
+        public long decreaseKeys = 0;       //Queued nodes updated in place with a shorter path
+        public long stalePops = 0;          //Popped nodes skipped because their position was re-opened by a shorter path
+        public long reopens = 0;            //Explored positions found again with a shorter path
+        public long peakOpen = 0;           //The largest size of a single open list
+        public long peakClosed = 0;         //The most positions held in the closed sets, across all threads
+        public long setupNanos = 0;         //Preparing the hueristics, the workspace and the start and end positions
+        public long searchNanos = 0;        //Expanding nodes
+        public long pathNanos = 0;          //Reconstructing the path and gathering the results
+
+        /**
+         * @return The counters in the order of LABELS.
+         */
+        public long[] values() {
+            return new long[] {probeCalls, heuristicCalls, generated, expanded, openInserts, openRemoves, decreaseKeys,
+                stalePops, reopens, peakOpen, peakClosed, setupNanos, searchNanos, pathNanos};
+        }
+
+        /**
+         * Adds the counters of a thread that helped with the same search. Peak sizes keep the larger of the two (a search that
+         * splits its closed sets between threads measures their total itself), and the timings are left alone, since the
+         * threads ran at the same time.
+         *
+         * @param other The counters of the helping thread.
+         */
+        public void add(SearchStats other) {
+            probeCalls += other.probeCalls;
+            heuristicCalls += other.heuristicCalls;
+            generated += other.generated;
+            expanded += other.expanded;
+            openInserts += other.openInserts;
+            openRemoves += other.openRemoves;
+            decreaseKeys += other.decreaseKeys;
+            stalePops += other.stalePops;
+            reopens += other.reopens;
+            peakOpen = Math.max(peakOpen, other.peakOpen);
+            peakClosed = Math.max(peakClosed, other.peakClosed);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            long[] values = values();
+            for (int i = 0; i < LABELS.length; i++) {
+                builder.append(i == 0 ? "" : " || ").append(LABELS[i]).append(": ").append(values[i]);
+            }
+            return builder.toString();
+        }
+    }
+
 
     
 
@@ -768,22 +1103,194 @@ public class Lattice2D {
 
    
 
-    private int[][] start;
-    private int[][] end;
-    private Function<int[], Boolean> probe;
-    private HashMap<Long, Node> leftClosed;
-    private HashMap<Long, Node> rightClosed;
-    private boolean leftOnlyRefine, rightOnlyRefine;
-    private double pathLen;
-    private Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> h1;
-    private Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> h2;
-    private long rollingID;
-    private Node middleFromLeft, middleFromRight;
-
-
+    /**
+     * A single search request for a batch of queries against one lattice (see solveAll).
+     */
+    public static class Query {
+        public final int[][] start;
+        public final int[][] end;
+        public final Heuristic h1;
+        public final Heuristic h2;
+        public final int searchType;
+        public final int openListType;
+
+        /**
+         * @param start The start point(s) of this query as [x, y]. Points on obstacles are removed.
+         * @param end The end point(s) of this query as [x, y]. Points on obstacles are removed.
+         * @param h1 The primary hueristic (see solve).
+         * @param h2 The secondary hueristic (see solve), may be null for the uni-directional searches.
+         * @param searchType The search type to use, see class constants.
+         */
+        public Query(int[][] start, int[][] end, Heuristic h1, Heuristic h2, int searchType) {
+            this(start, end, h1, h2, searchType, OPEN_LIST_HEAP);
+        }
+
+        /**
+         * @param start The start point(s) of this query as [x, y]. Points on obstacles are removed.
+         * @param end The end point(s) of this query as [x, y]. Points on obstacles are removed.
+         * @param h1 The primary hueristic (see solve).
+         * @param h2 The secondary hueristic (see solve), may be null for the uni-directional searches.
+         * @param searchType The search type to use, see class constants.
+         * @param openListType The open list to use for the graph searches, see class constants.
+         */
+        public Query(int[][] start, int[][] end, Heuristic h1, Heuristic h2, int searchType, int openListType) {
+            this.start = start;
+            this.end = end;
+            this.h1 = h1;
+            this.h2 = h2;
+            this.searchType = searchType;
+            this.openListType = openListType;
+        }
+    }
+
+    /**
+     * The state shared by the two frontiers of a parallel bi-directional search: the best path found so far and whether
+     * the search is over.
+     */
+    private static final class Meeting {
+        public volatile double pathLen = Double.POSITIVE_INFINITY;
+        public volatile boolean done = false;
+        public int x, y;    //The position where the best path crosses from one frontier to the other
+
+        /**
+         * Records a path through a position if it is shorter than the best path so far.
+         */
+        public synchronized void offer(double len, int x, int y) {
+            if (len < pathLen) {
+                this.x = x;
+                this.y = y;
+                pathLen = len;
+            }
+        }
+    }
+
+    /**
+     * One worker of a hash distributed search: the positions it owns (those whose hashed getLongPos picks this worker), its
+     * open list over them, and the messages of generated nodes sent to it by the other workers.
+     */
+    private static final class HashPartition {
+        public final SearchContext context;              //Searches this partition with its own hueristic and scratch space
+        public final ClosedSet closed;                   //Hashed, so that every worker only pays for the positions it owns
+        public final OpenList open;
+        public long[] parents;                           //Handle -> getLongPos of the parent position (its own position for start nodes)
+        public final ConcurrentLinkedQueue<long[]> inbox = new ConcurrentLinkedQueue<long[]>();
+        public final long[][] outbox;                    //Partially filled messages to every other worker
+        public volatile boolean idle = false;
+        public Thread thread;
+        public long explored = 0;
+
+        public HashPartition(SearchContext context, ClosedSet closed, OpenList open, long[] parents, int workers) {
+            this.context = context;
+            this.closed = closed;
+            this.open = open;
+            this.parents = parents;
+            this.outbox = new long[workers][];
+        }
+    }
+
+    /**
+     * The state shared by all the workers of a hash distributed search. A message is a long array holding the number of
+     * nodes followed by four longs per node: its position, its parent's position and its g and h values.
+     *
+     * The search is over once every worker is idle (its open list is empty, or holds nothing shorter than the best path) and
+     * no message is in flight. Because a worker reads the other workers' flags one at a time, every idle worker that receives a
+     * message first counts a wakeup, and a termination check only succeeds if no wakeup happened while it was running.
+     */
+    private static final class HashDistribution {
+        public final HashPartition[] partitions;
+        public final ClosedSet goals;                    //The end positions, only read during the search
+        public final Meeting meeting = new Meeting();
+        public final AtomicLong inFlight = new AtomicLong();
+        public final AtomicLong wakeups = new AtomicLong();
+
+        public HashDistribution(HashPartition[] partitions, ClosedSet goals) {
+            this.partitions = partitions;
+            this.goals = goals;
+        }
+
+        /**
+         * @return The worker that owns a position.
+         */
+        public int owner(int x, int y) {
+            return Math.floorMod(LongIntMap.hash(getLongPos(x, y)), partitions.length);
+        }
+
+        /**
+         * @return True if no worker has anything left to do. Only meaningful when called by an idle worker.
+         */
+        public boolean quiescent() {
+            long before = wakeups.get();
+            for (HashPartition partition : partitions) {
+                if (!partition.idle) {
+                    return false;
+                }
+            }
+            return inFlight.get() == 0 && wakeups.get() == before;
+        }
+
+        /**
+         * Sends the partially filled message of one worker to another.
+         */
+        public void flush(HashPartition from, int to) {
+            long[] message = from.outbox[to];
+            if (message == null) {
+                return;
+            }
+            from.outbox[to] = null;
+            HashPartition target = partitions[to];
+            inFlight.incrementAndGet();
+            target.inbox.add(message);
+            if (target.idle) {
+                LockSupport.unpark(target.thread);
+            }
+        }
+
+        /**
+         * Queues a generated node for the worker that owns it, sending the message once it is full.
+         */
+        public void send(HashPartition from, int to, long pos, long parentPos, double gVal, double hVal) {
+            long[] message = from.outbox[to];
+            if (message == null) {
+                message = from.outbox[to] = new long[1 + 4 * HASH_BATCH];
+            }
+            int i = 1 + 4 * (int) message[0]++;
+            message[i] = pos;
+            message[i + 1] = parentPos;
+            message[i + 2] = Double.doubleToRawLongBits(gVal);
+            message[i + 3] = Double.doubleToRawLongBits(hVal);
+            if (message[0] == HASH_BATCH) {
+                flush(from, to);
+            }
+        }
+
+        /**
+         * Stops every worker.
+         */
+        public void finish() {
+            meeting.done = true;
+            for (HashPartition partition : partitions) {
+                if (partition.thread != null) {
+                    LockSupport.unpark(partition.thread);
+                }
+            }
+        }
+    }
+
+    private int[][] start;
+    private int[][] end;
+    private LatticeProbe probe;
+    private LatticeProbe sharedProbe;   //The probe as called by concurrent searches, serialized unless the probe is thread-safe
+    private BitGrid grid;   //Backing store of bounded lattices, null if the lattice is only known through the probe
+    private TiledGrid openedTiles;  //Tiled lattice file opened by the file constructor (closed by close()), null otherwise
+    private int searchThreads = Runtime.getRuntime().availableProcessors();    //Workers used by the hash distributed search
+    private final ThreadLocal<SearchWorkspace> workspaces = ThreadLocal.withInitial(SearchWorkspace::new);   //Per-thread workspaces for solve and batch queries
+    private int width = -1, height = -1;
+
+
     /**
      * Initializes the Lattice using a file that represents the maze. The file must contain the character '0' for empty spaces,
-     * and the maze need not be a square.
+     * and the maze need not be a square. Binary lattice files (see MappedGrid) are memory-mapped instead of read, and tiled
+     * lattice files (see TiledGrid) are loaded a tile at a time as they are probed, and stay open until the lattice is closed.
      * 
      * @param fname The name of the board file.
      * @param start A two dimensional array containing any number of start points as [x, y]. Note top left of the board is [0, 0]
@@ -791,38 +1298,24 @@ public class Lattice2D {
      */
     public Lattice2D(String fname, int[][] start, int[][] end) {
         try {
-            BufferedReader in = new BufferedReader(new FileReader(fname));
-            String line;
-            ArrayList<boolean[]> arrBoard = new ArrayList<boolean[]>();
-            
-            while((line = in.readLine()) != null) {
-                boolean[] row = new boolean[line.length()];
-                for (int i = 0; i < row.length; i++) {
-                    if (line.charAt(i) != '0') {
-                        row[i] = true;
-                    }
-                }
-                arrBoard.add(row);   
+            if (MappedGrid.isBinary(fname)) {
+                MappedGrid grid = MappedGrid.open(fname);
+                initBounded(grid, grid.width(), grid.height(), start, end);
+            } else if (TiledGrid.isTiled(fname)) {
+                TiledGrid grid = TiledGrid.open(fname);
+                openedTiles = grid;
+                initBounded(grid, grid.width(), grid.height(), start, end);
+            } else {
+                initGrid(BitGrid.read(fname), start, end);
             }
-            in.close();
-
-            Function<int[], Boolean> probe = (pos) -> {
-                if (pos[1] < 0 || pos[1] >= arrBoard.size()) {
-                    return true;
-                }
-    
-                if (pos[0] < 0 || pos[0] >= arrBoard.get(pos[1]).length) {
-                    return true;
-                }
-                return arrBoard.get(pos[1])[pos[0]];
-            };
-            
-            
-            initLattice(probe, start, end);
-
         } catch (Exception ex) {
             System.out.println("Error: Board File Could not be read in successfully, reverting to a completely blocked board.");
-            Function<int[], Boolean> probe = (pos) -> {
+            try {
+                close();
+            } catch (IOException closeEx) {}
+            width = -1;
+            height = -1;
+            LatticeProbe probe = (x, y) -> {
                 return true;
             };
             initLattice(probe , start, end);
@@ -830,474 +1323,1524 @@ public class Lattice2D {
     }
 
     /**
-     Initializes the Lattice using 2 Dimensional boolean array.
+     Initializes the Lattice using 2 Dimensional boolean array. The array is packed into a BitGrid, so later changes to it are not seen.
 
      * @param board The two dimensional boolean array representing the lattice. False is empty and True is occupied.
      * @param start A two dimensional array containing any number of start points as [x, y]. Note top left of the board is [0, 0]
      * @param end A two dimensional array containing any number of end points as [x, y]. Note top left of the board is [0, 0]
      */
     public Lattice2D(boolean[][] board, int[][] start, int[][] end) {
-        Function<int[], Boolean> probe = (pos) -> {
-            if (pos[1] < 0 || pos[1] >= board.length) {
-                return true;
-            }
+        initGrid(new BitGrid(board), start, end);
+    }
 
-            if (pos[0] < 0 || pos[0] >= board[pos[1]].length) {
-                return true;
-            }
-            return board[pos[1]][pos[0]];
-        };
-       initLattice(probe, start, end);
+    /**
+     * Initializes the Lattice using a packed bitset. The grid is shared, not copied.
+     *
+     * @param grid The lattice, where set bits are occupied.
+     * @param start A two dimensional array containing any number of start points as [x, y]. Note top left of the board is [0, 0]
+     * @param end A two dimensional array containing any number of end points as [x, y]. Note top left of the board is [0, 0]
+     */
+    public Lattice2D(BitGrid grid, int[][] start, int[][] end) {
+        initGrid(grid, start, end);
+    }
+
+    /**
+     * Initializes the Lattice using a memory-mapped binary lattice file, which is probed in place and never copied onto the heap.
+     *
+     * @param grid The mapped lattice.
+     * @param start A two dimensional array containing any number of start points as [x, y]. Note top left of the board is [0, 0]
+     * @param end A two dimensional array containing any number of end points as [x, y]. Note top left of the board is [0, 0]
+     */
+    public Lattice2D(MappedGrid grid, int[][] start, int[][] end) {
+        initBounded(grid, grid.width(), grid.height(), start, end);
+    }
+
+    /**
+     * Initializes the Lattice using a tiled lattice file, which loads tiles as they are probed and keeps a bounded number in memory.
+     *
+     * @param grid The tiled lattice.
+     * @param start A two dimensional array containing any number of start points as [x, y]. Note top left of the board is [0, 0]
+     * @param end A two dimensional array containing any number of end points as [x, y]. Note top left of the board is [0, 0]
+     */
+    public Lattice2D(TiledGrid grid, int[][] start, int[][] end) {
+        initBounded(grid, grid.width(), grid.height(), start, end);
     }
 
     public Lattice2D (Function<int[], Boolean> probe, int[][] start, int[][] end) {
+        initLattice(LatticeProbe.of(probe), start, end);
+    }
+
+    /**
+     * Initializes the Lattice using a primitive probe, which is called directly by the searches (no position arrays or boxing).
+     *
+     * @param probe Returns True if a position [x, y] is occupied and False if it is empty.
+     * @param start A two dimensional array containing any number of start points as [x, y].
+     * @param end   A two dimensional array containing any number of end points as [x, y].
+     */
+    public Lattice2D (LatticeProbe probe, int[][] start, int[][] end) {
         initLattice(probe, start, end);
     }
     
+    private void initGrid(BitGrid grid, int[][] start, int[][] end) {
+        this.grid = grid;
+        width = grid.width();
+        height = grid.height();
+        initLattice(grid, start, end);
+    }
+
+    private void initBounded(LatticeProbe probe, int width, int height, int[][] start, int[][] end) {
+        this.width = width;
+        this.height = height;
+        initLattice(probe, start, end);
+    }
+
     /**
      * Initializes the Lattice programmatically.
      * 
-     * @param probe A lambda function which takes a position [x, y] and returns True of False depending on whether the lattice is empty or occupied at that space.
+     * @param probe Returns True of False depending on whether the lattice is empty or occupied at a position [x, y].
      *              False refers to empty space.
      * @param start A two dimensional array containing any number of start points as [x, y].
      * @param end   A two dimensional array containing any number of end points as [x, y].
      */
-    private void initLattice (Function<int[], Boolean> probe, int[][] start, int[][] end) {
+    private void initLattice (LatticeProbe probe, int[][] start, int[][] end) {
         this.probe = probe;
-
+        this.sharedProbe = LatticeProbe.synchronizedProbe(probe);
         System.out.println("Scrubbing Start and End Points:");
+        this.start = scrub(probe, start, "start", true);
+        this.end = scrub(probe, end, "end", true);
+        System.out.println("Scrubbing Completed.\n");
+    }
+
+    /**
+     * Removes the points that are on obstacles.
+     *
+     * @param probe The probe to check the points with.
+     * @param positions A two dimensional array containing any number of points as [x, y].
+     * @param kind The kind of points ("start" or "end"), used in the progress information.
+     * @param verbose True to print every point that is removed.
+     * @return A copy of the points, without those that are on obstacles.
+     */
+    private int[][] scrub(LatticeProbe probe, int[][] positions, String kind, boolean verbose) {
         int validCount = 0;
-        for (int[] pos : start) {
-            if (probe.apply(pos)) {
-               System.out.println("Obstacle detected on [" + pos[0] + ", " + pos[1] + "]. Removing start location.");
+        for (int[] pos : positions) {
+            if (probe.isBlocked(pos[0], pos[1])) {
+                if (verbose) {
+                    System.out.println("Obstacle detected on [" + pos[0] + ", " + pos[1] + "]. Removing " + kind + " location.");
+                }
             } else {
                 validCount++;
             }
         }
-        int[][] newStart = new int[validCount][2];
+        int[][] scrubbed = new int[validCount][2];
         int i = 0;
-        for (int[] pos : start) {
-            if (!probe.apply(pos)) {
-                newStart[i][0] = pos[0];
-                newStart[i][1] = pos[1];
+        for (int[] pos : positions) {
+            if (!probe.isBlocked(pos[0], pos[1])) {
+                scrubbed[i][0] = pos[0];
+                scrubbed[i][1] = pos[1];
                 i++;
             }
         }
-        this.start = newStart;
-        
-        validCount = 0;
-        for (int[] pos : end) {
-            if (probe.apply(pos)) {
-               System.out.println("Obstacle detected on [" + pos[0] + ", " + pos[1] + "]. Removing end location.");
-            } else {
-                validCount++;
-            }
+        return scrubbed;
+    }
+
+    /**
+     * Freezes the lattice: the probe is rasterized over the rectangle from [0, 0] to [width - 1, height - 1] into a packed grid
+     * (in parallel bands of rows, see BitGrid.rasterize) and every later search reads the grid instead, so the cost of a search
+     * no longer depends on the cost of the probe. Positions outside the rectangle become occupied, and start and end points
+     * outside it are removed. Must not be called while a search of this lattice is running.
+     *
+     * @param width The width of the rectangle.
+     * @param height The height of the rectangle.
+     */
+    public void freeze(int width, int height) {
+        BitGrid frozen = BitGrid.rasterize(probe, width, height);
+        this.grid = frozen;
+        this.width = width;
+        this.height = height;
+        this.probe = frozen;
+        this.sharedProbe = frozen;
+        this.start = scrub(probe, start, "start", true);
+        this.end = scrub(probe, end, "end", true);
+    }
+
+    /**
+     * Closes the tiled lattice file opened by the file constructor, if there is one. Grids passed to a constructor belong to
+     * the caller and are not closed. Must not be called while a search of this lattice is running, and images of earlier
+     * results (which probe the lattice when they are first rendered) should be generated before the lattice is closed.
+     *
+     * @throws IOException If the file could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (openedTiles != null) {
+            TiledGrid tiles = openedTiles;
+            openedTiles = null;
+            tiles.close();
         }
+    }
 
-        int[][] newEnd = new int[validCount][2];
-        i = 0;
-        for (int[] pos : end) {
-            if (!probe.apply(pos)) {
-                newEnd[i][0] = pos[0];
-                newEnd[i][1] = pos[1];
-                i++;
-            }
+    /**
+     * Sets the number of workers (threads, including the calling thread) used by the hash distributed search.
+     * Defaults to the number of available processors.
+     *
+     * @param threads The number of workers, at least 1.
+     */
+    public void setSearchThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A search needs at least one thread: " + threads);
         }
-        this.end = newEnd;
-        
-        System.out.println("Scrubbing Completed.\n");
-        
+        this.searchThreads = threads;
     }
 
+    /**
+     * A legacy hueristic lambda function, adapted to the Heuristic interface by the search context that prepares it.
+     */
+    private static final class LegacyHeuristic implements Heuristic {
+        private final Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> legacy;
+
+        public LegacyHeuristic(Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> legacy) {
+            this.legacy = legacy;
+        }
+
+        @Override
+        public Heuristic.Estimator prepare(LatticeProbe probe, int[][] start, int[][] end) {
+            return adapt(probe, start, end, new Node(null, new int[2], 0, 0, 0));
+        }
+
+        /**
+         * @param probe The lattice being searched.
+         * @param start The positions this search direction starts from.
+         * @param end The goal positions of this search direction.
+         * @param parentView The expanded node as shown to the hueristic. Only its position is set here.
+         * @return An estimator that calls the legacy function, reusing its position array and the parent view.
+         */
+        public Heuristic.Estimator adapt(LatticeProbe probe, int[][] start, int[][] end, Node parentView) {
+            Function<int[], Boolean> probeFunction = probe.asFunction();
+            int[] pos = new int[2];
+            return (x, y, parentX, parentY) -> {
+                pos[0] = x;
+                pos[1] = y;
+                if (parentX == x && parentY == y) {
+                    return legacy.apply(probeFunction, pos, null, start, end);
+                }
+                parentView.pos[0] = parentX;
+                parentView.pos[1] = parentY;
+                return legacy.apply(probeFunction, pos, parentView, start, end);
+            };
+        }
+    }
 
+    /**
+     * Adapts a legacy hueristic lambda function to the Heuristic interface.
+     *
+     * @param legacy The hueristic lambda function, or null.
+     * @return The adapted hueristic (the function itself if it already is a Heuristic), or null if the function is null.
+     */
+    private static Heuristic legacyHeuristic(Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> legacy) {
+        if (legacy == null) {
+            return null;
+        }
+        if (legacy instanceof Heuristic) {
+            return (Heuristic) legacy;
+        }
+        return new LegacyHeuristic(legacy);
+    }
 
     /**
-     * Generates all the valid neighbours of a Node.
-     * 
-     * @param node The node to expand.
-     * @param fromLeft Tells the function whether we are search from the forward (left) or backward (right) frontier.
+     * The state of a single query: its start and end points, the prepared hueristics, the closed sets, the best path
+     * found so far and the scratch space used to expand nodes. A search only reads the lattice, so any number of
+     * contexts can search the same lattice at the same time.
      */
-    private LinkedList<Node> genValidNeighbours(Node node, boolean fromLeft) {
-        
-        LinkedList<Node> neighbours = new LinkedList<Node>();
-        int[] parentPos = null;
-        double tempH = node.gVal + 1.0;
-        int[] pos;
-        if (node.parent != null) {
-            parentPos = node.parent.pos;
-        } else {
-            parentPos = null;   
+    private final class SearchContext {
+        private final int[][] start;
+        private final int[][] end;
+        private final boolean verbose;
+        private final SearchWorkspace workspace;   //Closed sets and open lists of the search, null for helpers of a parallel search
+        private final SearchTrace trace;           //Records the expansions of the sequential searches, null if they are not traced
+        private final SearchStats stats = new SearchStats();
+        private LatticeProbe probe;                 //The lattice as probed by this context (see Lattice2D.sharedProbe)
+        private ClosedSet leftClosed;
+        private ClosedSet rightClosed;
+        private boolean leftOnlyRefine, rightOnlyRefine;
+        private double pathLen;
+        private Heuristic.Estimator h1;
+        private Heuristic.Estimator h2;
+        private long rollingID;
+        private int middleFromLeft, middleFromRight;
+
+        //Scratch space reused by every expansion, so that no objects are allocated per node.
+        private final int[] neighbourX = new int[4];
+        private final int[] neighbourY = new int[4];
+        private final double[] neighbourG = new double[4];
+        private final double[] neighbourH = new double[4];
+        private final long[] neighbourID = new long[4];
+        private final Node parentView = new Node(null, new int[2], 0, 0, 0);    //The expanded node as seen by legacy hueristics
+
+
+        /**
+         * @param start The start points of the query, already scrubbed.
+         * @param end The end points of the query, already scrubbed.
+         * @param verbose True to print progress information.
+         * @param workspace The memory to search in (see SearchWorkspace), may be null for contexts that only help another search.
+         * @param concurrent True if other searches of the lattice may run at the same time, so the shared probe is used.
+         */
+        public SearchContext(int[][] start, int[][] end, boolean verbose, SearchWorkspace workspace, boolean concurrent) {
+            this.probe = concurrent ? sharedProbe : Lattice2D.this.probe;
+            this.start = start;
+            this.end = end;
+            this.verbose = verbose;
+            this.workspace = workspace;
+            this.trace = workspace == null ? null : workspace.trace();
         }
-        for (int posDim = 0; posDim < 2; posDim++) {
-            for (int add = 1; add >= -1; add -= 2) {
-                pos = node.pos.clone();
-                pos[posDim] += add;
+
+        /**
+         * Queues a node of a frontier in its open list, or updates its queued entry in place (decrease-key) if it is already queued.
+         *
+         * @param open The open list of the frontier.
+         * @param closed The closed set (node pool) of the frontier.
+         * @param node The handle of the node.
+         */
+        private void openNode(OpenList open, ClosedSet closed, int node) {
+            if (open.contains(node)) {
+                stats.decreaseKeys++;
+            } else {
+                stats.openInserts++;
+            }
+            open.push(node, closed.g(node) + closed.h(node), closed.h(node), closed.id(node));
+            if (open.size() > stats.peakOpen) {
+                stats.peakOpen = open.size();
+            }
+        }
+
+        /**
+         * Prints a line of progress information, unless this search is quiet.
+         */
+        private void log(String line) {
+            if (verbose) {
+                System.out.println(line);
+            }
+        }
+
+        /**
+         * Generates all the valid neighbours of a node into the neighbour scratch arrays (neighbourX, neighbourY, neighbourG, neighbourH and neighbourID).
+         * Each neighbour has a g value one more than the expanded node. Nothing is allocated per call.
+         * 
+         * @param closed The closed set (node pool) of the frontier being searched.
+         * @param node The handle of the node to expand.
+         * @param fromLeft Tells the function whether we are search from the forward (left) or backward (right) frontier.
+         * @return The number of valid neighbours.
+         */
+        private int genValidNeighbours(ClosedSet closed, int node, boolean fromLeft) {
+        
+            int count = 0;
+            int x = closed.x(node), y = closed.y(node), nx, ny;
+            int parent = closed.parent(node);
+            int parentX = 0, parentY = 0;
+            double tempH;
+            if (parent >= 0) {
+                parentX = closed.x(parent);
+                parentY = closed.y(parent);
+            }
+
+            //Occupancy of the four neighbours, read a row at a time when the lattice is packed
+            int blockedMask = -1;
+            if (grid != null) {
+                long row = grid.window(x - 1, y);
+                blockedMask = (int) ((row >>> 2) & 1) | (int) ((row & 1) << 1);
+                blockedMask |= grid.isBlocked(x, y + 1) ? 4 : 0;
+                blockedMask |= grid.isBlocked(x, y - 1) ? 8 : 0;
+            }
+            stats.probeCalls += 4;          //Every neighbour is looked up, either above or below
+
+            //The expanded node as seen by legacy hueristics
+            parentView.gVal = closed.g(node);
+            parentView.hVal = closed.h(node);
+            parentView.id = closed.id(node);
+
+            for (int posDim = 0, bit = 1; posDim < 2; posDim++) {
+                for (int add = 1; add >= -1; add -= 2, bit <<= 1) {
+                    nx = posDim == 0 ? x + add : x;
+                    ny = posDim == 1 ? y + add : y;
                 
-                //Skip if the space is occupied
-                if (probe.apply(pos)) {
-                    continue;
+                    //Skip if the space is occupied
+                    if (grid != null ? (blockedMask & bit) != 0 : probe.isBlocked(nx, ny)) {
+                        continue;
+                    }
+
+                    //Skip if we are trying to move into the node's parent position
+                    if (parent >= 0 && nx == parentX && ny == parentY) {
+                        continue;
+                    }
+                
+                    //Calculate h values
+                    stats.heuristicCalls++;
+                    if (fromLeft) {
+                        tempH = h1.estimate(nx, ny, x, y);
+                    } else {
+                        tempH = h2.estimate(nx, ny, x, y);
+                    }
+                
+                    //Add child node
+                    if (tempH != Double.POSITIVE_INFINITY) {
+                        neighbourX[count] = nx;
+                        neighbourY[count] = ny;
+                        neighbourG[count] = closed.g(node) + 1.0;
+                        neighbourH[count] = tempH;
+                        neighbourID[count] = rollingID++;
+                        count++;
+                    }
                 }
+            }
+            return count;
+
+        }
 
-                //Skip if we are trying to move into the node's parent position
-                if (parentPos != null) {
-                    if (pos[0] == parentPos[0] && pos[1] == parentPos[1]) {
+        /**
+         * @return The occupancy of the positions [x - 1, y], [x, y] and [x + 1, y] as the bits 1, 2 and 4. If [x, y] is occupied
+         *         the other two positions are not probed.
+         */
+        private int blockedTriple(int x, int y) {
+            if (grid != null) {
+                stats.probeCalls += 3;
+                return (int) (grid.window(x - 1, y) & 7);
+            }
+            stats.probeCalls++;
+            if (probe.isBlocked(x, y)) {
+                return 2;
+            }
+            stats.probeCalls += 2;
+            return (probe.isBlocked(x - 1, y) ? 1 : 0) | (probe.isBlocked(x + 1, y) ? 4 : 0);
+        }
+
+        /**
+         * Jumps vertically from a position until a jump point is found: a goal position, a position with a forced horizontal
+         * neighbour (a neighbour that is empty while the one behind it, relative to the direction of travel, is occupied) or
+         * the position JUMP_LIMIT steps away.
+         *
+         * @param x The x coordinate.
+         * @param y The y coordinate to jump from.
+         * @param dy The direction of the jump (1 or -1).
+         * @param goals The closed set whose positions end the jump.
+         * @return The y coordinate of the jump point, or NO_JUMP if an obstacle is reached first.
+         */
+        private int jumpVertical(int x, int y, int dy, ClosedSet goals) {
+            int row = blockedTriple(x, y), nextRow;
+            for (int steps = 1; steps <= JUMP_LIMIT; steps++) {
+                y += dy;
+                if (((nextRow = blockedTriple(x, y)) & 2) != 0) {
+                    return NO_JUMP;
+                }
+                if (goals.contains(x, y) || steps == JUMP_LIMIT) {
+                    return y;
+                }
+
+                //A side that was occupied on the previous row and is empty on this one is a forced neighbour
+                if ((row & ~nextRow & 5) != 0) {
+                    return y;
+                }
+                row = nextRow;
+            }
+            return NO_JUMP;
+        }
+
+        /**
+         * Jumps horizontally from a position until a jump point is found: a goal position, a position from which a vertical jump
+         * finds a jump point or the position JUMP_LIMIT steps away.
+         *
+         * @param x The x coordinate to jump from.
+         * @param y The y coordinate.
+         * @param dx The direction of the jump (1 or -1).
+         * @param goals The closed set whose positions end the jump.
+         * @return The x coordinate of the jump point, or NO_JUMP if an obstacle is reached first.
+         */
+        private int jumpHorizontal(int x, int y, int dx, ClosedSet goals) {
+            //On packed lattices the next obstacle is found a word at a time
+            int wall = NO_JUMP;
+            if (grid != null) {
+                wall = dx > 0 ? grid.nextBlocked(x + 1, y) : grid.previousBlocked(x - 1, y);
+            }
+            for (int steps = 1; steps <= JUMP_LIMIT; steps++) {
+                x += dx;
+                stats.probeCalls++;
+                if (grid != null ? x == wall : probe.isBlocked(x, y)) {
+                    return NO_JUMP;
+                }
+                if (goals.contains(x, y) || steps == JUMP_LIMIT) {
+                    return x;
+                }
+                if (jumpVertical(x, y, 1, goals) != NO_JUMP || jumpVertical(x, y, -1, goals) != NO_JUMP) {
+                    return x;
+                }
+            }
+            return NO_JUMP;
+        }
+
+        /**
+         * Generates the jump point successors of a node into the neighbour scratch arrays, following the horizontal-first canonical
+         * ordering of 4-connected paths: a node reached horizontally continues horizontally and may turn vertically, while a node
+         * reached vertically only continues vertically unless a horizontal neighbour is forced. Start nodes jump in all four directions.
+         *
+         * @param closed The closed set (node pool) of the frontier being searched.
+         * @param goals The closed set of the other frontier, whose positions end every jump.
+         * @param node The handle of the node to expand.
+         * @param fromLeft Tells the function whether we are search from the forward (left) or backward (right) frontier.
+         * @return The number of successors.
+         */
+        private int genJumpSuccessors(ClosedSet closed, ClosedSet goals, int node, boolean fromLeft) {
+            int count = 0;
+            int x = closed.x(node), y = closed.y(node);
+            int parent = closed.parent(node);
+            int dirX = 0, dirY = 0, dx, dy, jump, sx, sy;
+            double tempH, gVal;
+            if (parent >= 0) {
+                dirX = Integer.signum(x - closed.x(parent));
+                dirY = Integer.signum(y - closed.y(parent));
+            }
+
+            for (int dir = 0; dir < 4; dir++) {
+                //Directions: continue horizontally, turn down, turn up, continue vertically (or the forced horizontal neighbours)
+                if (parent < 0) {
+                    dx = dir < 2 ? 1 - 2 * dir : 0;
+                    dy = dir < 2 ? 0 : 5 - 2 * dir;
+                } else if (dirX != 0) {
+                    if (dir == 3) {
+                        break;
+                    }
+                    dx = dir == 0 ? dirX : 0;
+                    dy = dir == 0 ? 0 : 3 - 2 * dir;
+                } else if (dir == 0) {
+                    dx = 0;
+                    dy = dirY;
+                } else if (dir < 3) {
+                    dx = 3 - 2 * dir;
+                    dy = 0;
+                    stats.probeCalls++;
+                    if (!probe.isBlocked(x + dx, y - dirY)) {
+                        continue;
+                    }
+                    stats.probeCalls++;
+                    if (probe.isBlocked(x + dx, y)) {
                         continue;
                     }
+                } else {
+                    break;
                 }
-                
-                //Calculate h values
+
+                if (dx != 0) {
+                    if ((jump = jumpHorizontal(x, y, dx, goals)) == NO_JUMP) {
+                        continue;
+                    }
+                    sx = jump;
+                    sy = y;
+                } else {
+                    if ((jump = jumpVertical(x, y, dy, goals)) == NO_JUMP) {
+                        continue;
+                    }
+                    sx = x;
+                    sy = jump;
+                }
+                gVal = closed.g(node) + Math.abs(sx - x) + Math.abs(sy - y);
+
+                //The hueristics see the position just before the jump point as the parent
+                parentView.gVal = gVal - 1.0;
+                parentView.hVal = closed.h(node);
+                parentView.id = closed.id(node);
+                stats.heuristicCalls++;
                 if (fromLeft) {
-                    tempH = h1.apply(probe, pos, node, start, end);
+                    tempH = h1.estimate(sx, sy, sx - dx, sy - dy);
                 } else {
-                    tempH = h2.apply(probe, pos, node, end, start);
+                    tempH = h2.estimate(sx, sy, sx - dx, sy - dy);
                 }
-                
-                //Add child node
+
                 if (tempH != Double.POSITIVE_INFINITY) {
-                    neighbours.add(new Node(node, pos, node.gVal + 1.0, tempH, rollingID++));
+                    neighbourX[count] = sx;
+                    neighbourY[count] = sy;
+                    neighbourG[count] = gVal;
+                    neighbourH[count] = tempH;
+                    neighbourID[count] = rollingID++;
+                    count++;
                 }
-                
-                    
-                
             }
+            return count;
         }
-        return neighbours;
 
-    }
+        /**
+         * Searches one frontier of a parallel bi-directional search until either frontier finishes. Every node generated is
+         * published to this frontier's g table and checked against the other frontier's table. Nodes where the frontiers meet
+         * are searched through like any other, so each frontier is a complete A* search towards the other frontier's roots
+         * on its own: once the smallest f value of either frontier reaches the best path length (or its open list runs out),
+         * that path is optimal and both frontiers stop.
+         *
+         * @param open The open list of this frontier.
+         * @param closed The closed set of this frontier, only used by the calling thread.
+         * @param ownG The published g values of this frontier.
+         * @param otherG The published g values of the other frontier.
+         * @param meeting The state shared by both frontiers.
+         * @param fromLeft True for the forward (left) frontier, False for the backward (right) frontier.
+         * @return The number of nodes expanded.
+         */
+        private long expandConcurrently(OpenList open, ClosedSet closed, SharedGTable ownG, SharedGTable otherG, Meeting meeting, boolean fromLeft) {
+            long explored = 0;
+            int workingNode, checkNode, count, nx, ny;
+            double gVal, hVal, otherVal;
+            while (!meeting.done) {
+                if ((workingNode = open.pop()) >= 0) {
+                    stats.openRemoves++;
+                }
+                if (workingNode < 0 || closed.g(workingNode) + Math.ceil(closed.h(workingNode)) >= meeting.pathLen) {
+                    meeting.done = true;
+                    break;
+                }
+                if (!closed.isIndexed(workingNode)) {
+                    stats.stalePops++;
+                    continue;
+                }
 
-    /**
-     * Searches the lattice with a specific search method and hueristic(s).
-     *
-     * @param h1 the primary hueristic lambda function. It should take a probe function (see 2DLattice Constructor), an [x, y] position, 
-     *           a parent node and the start and end points and return a value.
-     * @param h2 the secondary hueristic lambda function (used for the backwards search in Bi-Directional A*). It should take a probe function (see 2DLattice Constructor), 
-     *           an [x, y] position, a parent node and the start and end points and return a value.
-     * @param searchType the search type to use, see class constants.
-     * @return a SearchResults data structure containing all the pertinent information regarding the search.
-     */
-    public SearchResults solve(Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> h1, Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> h2, int searchType) {
+                explored++;
+                count = genValidNeighbours(closed, workingNode, fromLeft);
+                stats.generated += count;
+                for (int i = 0; i < count; i++) {
+                    nx = neighbourX[i];
+                    ny = neighbourY[i];
+                    gVal = neighbourG[i];
+                    hVal = neighbourH[i];
+                    if (gVal + Math.ceil(hVal) >= meeting.pathLen) {
+                        continue;
+                    }
+
+                    //If the current position was already explored, see if it can be improved.
+                    if ((checkNode = closed.find(nx, ny)) < 0) {
+                        checkNode = closed.add(nx, ny, workingNode, gVal, hVal, neighbourID[i]);
+                    } else if (gVal < closed.g(checkNode)) {
+                        stats.reopens++;
+                        closed.update(checkNode, workingNode, gVal, hVal, neighbourID[i]);
+                    } else {
+                        continue;
+                    }
+
+                    //Publish before checking the other frontier, so that at least one of the two frontiers sees every meeting.
+                    ownG.put(nx, ny, gVal);
+                    if ((otherVal = otherG.get(nx, ny)) < Double.POSITIVE_INFINITY) {
+                        meeting.offer(gVal + otherVal, nx, ny);
+                    }
+                    openNode(open, closed, checkNode);
+                }
+            }
+            return explored;
+        }
+
+        /**
+         * Stores a node in the partition that owns it, if it is new or shorter than the known path to its position. Nodes at an end
+         * position are offered as paths instead of being queued.
+         *
+         * @param dist The shared state of the search.
+         * @param part The partition that owns the position.
+         * @param x The x coordinate.
+         * @param y The y coordinate.
+         * @param parentPos The getLongPos of the parent position.
+         * @param gVal The travelled path length to the position.
+         * @param hVal The hueristic value of the position.
+         */
+        private void receiveNode(HashDistribution dist, HashPartition part, int x, int y, long parentPos, double gVal, double hVal) {
+            if (gVal + Math.ceil(hVal) >= dist.meeting.pathLen) {
+                return;
+            }
+            int node = part.closed.find(x, y);
+            if (node < 0) {
+                node = part.closed.add(x, y, -1, gVal, hVal, rollingID++);
+                if (node >= part.parents.length) {
+                    part.parents = Arrays.copyOf(part.parents, part.parents.length * 2);
+                }
+            } else if (gVal < part.closed.g(node)) {
+                stats.reopens++;
+                part.closed.update(node, -1, gVal, hVal, rollingID++);
+            } else {
+                return;
+            }
+            part.parents[node] = parentPos;
+
+            if (dist.goals.contains(x, y)) {
+                dist.meeting.offer(gVal, x, y);
+            } else {
+                openNode(part.open, part.closed, node);
+            }
+        }
+
+        /**
+         * Runs one worker of a hash distributed search until every worker is done. Nodes generated for a position owned by
+         * another worker are batched into messages, which are sent when full, every few expansions and before going idle.
+         *
+         * @param dist The shared state of the search.
+         * @param self The index of this worker's partition.
+         */
+        private void expandPartition(HashDistribution dist, int self) {
+            HashPartition part = dist.partitions[self];
+            ClosedSet closed = part.closed;
+            Meeting meeting = dist.meeting;
+            int workingNode, count, nx, ny, owner, x, y, sinceFlush = 0;
+            long pos, parentPos, message[];
+            double gVal, hVal;
+            while (!meeting.done) {
+                //Receive every waiting message before expanding, since they may hold shorter paths.
+                if ((message = part.inbox.poll()) != null) {
+                    if (part.idle) {
+                        part.idle = false;
+                        dist.wakeups.incrementAndGet();
+                    }
+                    for (int i = 1, last = 1 + 4 * (int) message[0]; i < last; i += 4) {
+                        receiveNode(dist, part, (int) (message[i] >> 32), (int) message[i], message[i + 1],
+                            Double.longBitsToDouble(message[i + 2]), Double.longBitsToDouble(message[i + 3]));
+                    }
+                    dist.inFlight.decrementAndGet();
+                    continue;
+                }
+
+                if ((workingNode = part.open.pop()) >= 0) {
+                    stats.openRemoves++;
+                    if (closed.g(workingNode) + Math.ceil(closed.h(workingNode)) >= meeting.pathLen) {
+                        part.open.clear();
+                        workingNode = -1;
+                    }
+                }
+                if (workingNode < 0) {
+                    for (int to = 0; to < dist.partitions.length; to++) {
+                        dist.flush(part, to);
+                    }
+                    sinceFlush = 0;
+                    part.idle = true;
+                    if (dist.quiescent()) {
+                        dist.finish();
+                        break;
+                    }
+                    LockSupport.parkNanos(HASH_IDLE_NANOS);
+                    continue;
+                }
+
+                part.explored++;
+                x = closed.x(workingNode);
+                y = closed.y(workingNode);
+                pos = getLongPos(x, y);
+                parentPos = part.parents[workingNode];
+                count = genValidNeighbours(closed, workingNode, true);
+                stats.generated += count;
+                for (int i = 0; i < count; i++) {
+                    nx = neighbourX[i];
+                    ny = neighbourY[i];
+                    gVal = neighbourG[i];
+                    hVal = neighbourH[i];
+                    //Skip the parent position (the closed set does not link parents across partitions) and nodes that cannot improve the path.
+                    if (getLongPos(nx, ny) == parentPos || gVal + Math.ceil(hVal) >= meeting.pathLen) {
+                        continue;
+                    }
+                    if ((owner = dist.owner(nx, ny)) == self) {
+                        receiveNode(dist, part, nx, ny, pos, gVal, hVal);
+                    } else {
+                        dist.send(part, owner, getLongPos(nx, ny), pos, gVal, hVal);
+                    }
+                }
+                if (++sinceFlush == HASH_FLUSH_INTERVAL) {
+                    for (int to = 0; to < dist.partitions.length; to++) {
+                        dist.flush(part, to);
+                    }
+                    sinceFlush = 0;
+                }
+            }
+        }
+
+        /**
+         * Prepares a hueristic for one search direction of this context. Legacy hueristics are adapted here, so that they
+         * see this context's view of the expanded node (each thread of a parallel search has its own context).
+         *
+         * @param h The hueristic.
+         * @param from The positions this search direction starts from.
+         * @param to The goal positions of this search direction.
+         * @return The estimator, only to be used by this context.
+         */
+        private Heuristic.Estimator prepare(Heuristic h, int[][] from, int[][] to) {
+            if (h instanceof LegacyHeuristic) {
+                return ((LegacyHeuristic) h).adapt(probe, from, to, parentView);
+            }
+            return h.prepare(probe, from, to);
+        }
+
+        /**
+         * Searches the lattice with a specific search method, hueristic(s) and open list (see Lattice2D.solve).
+         *
+         * @param h1 the primary hueristic (see above).
+         * @param h2 the secondary hueristic (see above).
+         * @param searchType the search type to use, see class constants.
+         * @param openListType the open list to use for the graph searches, see class constants. The bucket queue is only
+         *                     used while all hueristic values are whole numbers, and falls back to the heap otherwise.
+         * @return a SearchResults data structure containing all the pertinent information regarding the search.
+         */
+        public SearchResults solve(Heuristic h1, Heuristic h2, int searchType, int openListType) {
         
-        this.h1 = h1;
-        this.h2 = h2;
-        rollingID = 0;
-        pathLen = Double.POSITIVE_INFINITY;
-        long leftExplore = 0, rightExplore = 0;
-        middleFromLeft = null;
-        middleFromRight = null;
-        leftClosed = new HashMap<Long, Node>();
-        rightClosed = new HashMap<Long, Node>();
-        leftOnlyRefine = false;
-        rightOnlyRefine = false;
-        ArrayList<Double> leftDepths = new ArrayList<Double>();
-        ArrayList<Double> rightDepths = new ArrayList<Double>();
-        ArrayList<Long> leftExplored = new ArrayList<Long>();
-        ArrayList<Long> rightExplored = new ArrayList<Long>();
-        ArrayList<Long> timeTaken = new ArrayList<Long>();
-
-        Node workingNode;
-        Node checkNode;
-        boolean allEmpty = true, run = false;
-        Instant startTime = Instant.now();
-        boolean oneStart = false, oneEnd = false;
-
-        for (int[] pos : start) {
-            if (!probe.apply(pos)) {
-                oneStart = true;
-                break;
-            }
-        }
-
-        for (int[] pos : end) {
-            if (!probe.apply(pos)) {
-                oneEnd = true;
-                break;
-            }
-        }        
-
-        run = oneStart && oneEnd;
-
-        //Iterative Deepening Searches
-        if (run && (searchType == SEARCH_TYPE_DFID || searchType == SEARCH_TYPE_ASID)) {
-            double leftCurrDepth = -1.0, leftNextDepth;
-            leftNextDepth = 0.0;
-            LinkedList<Node> leftOpen = new LinkedList<Node>();
+            long setupStart = System.nanoTime();
             if (searchType == SEARCH_TYPE_DFID) {
-                System.out.println("Running Depth First Iterative Deepening Search:");
-                this.h1 = (h1 = hNULL);
+                h1 = hNULL;
+            }
+            if (searchType == SEARCH_TYPE_PBDAS || searchType == SEARCH_TYPE_HDAS) {
+                probe = sharedProbe;    //Probed by several threads (set before the hueristics capture it)
+            }
+            this.h1 = prepare(h1, start, end);
+            this.h2 = h2 == null ? null : prepare(h2, end, start);
+            rollingID = 0;
+            pathLen = Double.POSITIVE_INFINITY;
+            long leftExplore = 0, rightExplore = 0;
+            middleFromLeft = -1;
+            middleFromRight = -1;
+            if (width >= 0 && height >= 0 && (long) width * height <= DENSE_CLOSED_LIMIT) {
+                workspace.begin(width, height);
             } else {
-                System.out.println("Running A* Iterative Deepening Search:");
+                workspace.begin(-1, -1);
+            }
+            leftClosed = workspace.leftClosed();
+            rightClosed = workspace.rightClosed();
+            leftOnlyRefine = false;
+            rightOnlyRefine = false;
+            ArrayList<Double> leftDepths = new ArrayList<Double>();
+            ArrayList<Double> rightDepths = new ArrayList<Double>();
+            ArrayList<Long> leftExplored = new ArrayList<Long>();
+            ArrayList<Long> rightExplored = new ArrayList<Long>();
+            ArrayList<Long> timeTaken = new ArrayList<Long>();
+
+            int workingNode;
+            int checkNode;
+            int count, nx, ny;
+            double gVal, hVal;
+            boolean allEmpty = true, run = false;
+            Instant startTime = Instant.now();
+            boolean oneStart = false, oneEnd = false;
+
+            for (int[] pos : start) {
+                stats.probeCalls++;
+                if (!probe.isBlocked(pos[0], pos[1])) {
+                    oneStart = true;
+                    break;
+                }
             }
-            Instant depthStart = (startTime = Instant.now());
-            while(run) {
-                if (allEmpty) {
-                    if (leftNextDepth == Double.POSITIVE_INFINITY) {
-                        break;
-                    }
-                    allEmpty = false;
-
-                    //Display information after a depth is fully searched
-                    if (!rightClosed.isEmpty()) {
-                        leftDepths.add(leftCurrDepth);
-                        leftExplored.add(leftExplore);
-                        long millTime = Duration.between(depthStart, Instant.now()).toMillis();
-                        timeTaken.add(Duration.between(depthStart, Instant.now()).toMillis());
-                        System.out.println("Depth: " + leftCurrDepth + " || Explored: " + leftExplore + " || Time(ms): " + millTime);
-                    }
 
-                    leftOpen.clear();
-                    leftClosed.clear();
+            for (int[] pos : end) {
+                stats.probeCalls++;
+                if (!probe.isBlocked(pos[0], pos[1])) {
+                    oneEnd = true;
+                    break;
+                }
+            }        
+
+            run = oneStart && oneEnd;
+            long searchStart = System.nanoTime();
+            stats.setupNanos = searchStart - setupStart;
+
+            //Iterative Deepening Searches
+            if (run && (searchType == SEARCH_TYPE_DFID || searchType == SEARCH_TYPE_ASID)) {
+                double leftCurrDepth = -1.0, leftNextDepth;
+                leftNextDepth = 0.0;
+                int[] leftOpen = workspace.stack();
+                int leftOpenSize = 0;
+                if (searchType == SEARCH_TYPE_DFID) {
+                    log("Running Depth First Iterative Deepening Search:");
+                } else {
+                    log("Running A* Iterative Deepening Search:");
+                }
+                Instant depthStart = (startTime = Instant.now());
+                while(run) {
+                    if (allEmpty) {
+                        if (leftNextDepth == Double.POSITIVE_INFINITY) {
+                            break;
+                        }
+                        allEmpty = false;
+
+                        //Display information after a depth is fully searched
+                        if (!rightClosed.isEmpty()) {
+                            leftDepths.add(leftCurrDepth);
+                            leftExplored.add(leftExplore);
+                            long millTime = Duration.between(depthStart, Instant.now()).toMillis();
+                            timeTaken.add(Duration.between(depthStart, Instant.now()).toMillis());
+                            log("Depth: " + leftCurrDepth + " || Explored: " + leftExplore + " || Time(ms): " + millTime);
+                        }
+
+                        stats.peakClosed = Math.max(stats.peakClosed, leftClosed.size() + rightClosed.size());
+                        leftOpenSize = 0;
+                        leftClosed.clear();
 
-                    leftExplore = 0;
-                    leftCurrDepth = leftNextDepth;
-                    leftNextDepth = Double.POSITIVE_INFINITY;
+                        leftExplore = 0;
+                        leftCurrDepth = leftNextDepth;
+                        leftNextDepth = Double.POSITIVE_INFINITY;
 
-                    if (start.length == 0 || end.length == 0) {
-                        break;
-                    }
+                        if (start.length == 0 || end.length == 0) {
+                            break;
+                        }
                     
-                    //Add Start Points.
-                    Node newNode;
-                    for (int[] pos : start) {
-                        newNode = new Node(null, pos, 0, h1.apply(probe, pos, null, start, end), rollingID++);
-                        leftOpen.add(newNode);
-                        leftClosed.put(newNode.getLongPos(), newNode);
-                    }
+                        //Add Start Points.
+                        for (int[] pos : start) {
+                            if (leftOpenSize == leftOpen.length) {
+                                leftOpen = workspace.growStack();
+                            }
+                            stats.heuristicCalls++;
+                            leftOpen[leftOpenSize++] = leftClosed.add(pos[0], pos[1], -1, 0, this.h1.estimate(pos[0], pos[1], pos[0], pos[1]), rollingID++);
+                        }
                     
-                    //Initially, add all the End Points to the right explored set (This is never updated, but merely used to check if an end point is reached).
-                    if (rightClosed.isEmpty()) {
-                        for (int[] pos : end) {
-                            newNode = new Node(null, pos, 0, 0, rollingID++);
-                            if ((checkNode = leftClosed.get(newNode.getLongPos())) != null) {
-                                middleFromLeft = checkNode;
-                                middleFromRight = newNode;
-                                pathLen = 0.0;
-                                run = false;
+                        //Initially, add all the End Points to the right explored set (This is never updated, but merely used to check if an end point is reached).
+                        if (rightClosed.isEmpty()) {
+                            for (int[] pos : end) {
+                                if ((checkNode = leftClosed.find(pos[0], pos[1])) >= 0) {
+                                    middleFromLeft = checkNode;
+                                    middleFromRight = rightClosed.append(pos[0], pos[1], -1, 0, 0, rollingID++);
+                                    pathLen = 0.0;
+                                    run = false;
+                                    break;
+                                }
+                                rightClosed.add(pos[0], pos[1], -1, 0, 0, rollingID++);
+                            }
+                            if (!run) {
                                 break;
                             }
-                            rightClosed.put(newNode.getLongPos(), newNode);
-                        }
-                        if (!run) {
-                            break;
                         }
-                    }
     
-                    depthStart = Instant.now();
+                        depthStart = Instant.now();
                     
-                }
+                    }
                     
             
-                if ((workingNode = leftOpen.pollLast()) == null) {
-                    allEmpty = true;
-                } else if ((checkNode = leftClosed.get(workingNode.getLongPos())) != null && workingNode == checkNode) {
-                    leftClosed.remove(workingNode.getLongPos());
-                    leftExplore++;
-                    for (Node newNode : genValidNeighbours(workingNode, true)) {
-                        if (newNode.gVal + Math.ceil(newNode.hVal) <= leftCurrDepth) {
-                            //Check if a the position is an end point.
-                            if ((checkNode = rightClosed.get(newNode.getLongPos())) != null) {
-                                pathLen = newNode.gVal;
-                                middleFromLeft = newNode;
-                                middleFromRight = checkNode;
-                                run = false;
-                                leftOpen.clear();
-                                break;
-                            //Check if we should re-expand a node or not.
-                            } else if (((checkNode = leftClosed.get(newNode.getLongPos())) == null) || (newNode.gVal < checkNode.gVal)) {
-                                
-                                leftOpen.add(newNode);
-                                leftClosed.put(newNode.getLongPos(), newNode);
-                            }
-                        //Find the next minimum integer depth.
-                        } else if (newNode.gVal + Math.ceil(newNode.hVal) < leftNextDepth) {
+                    if (leftOpenSize == 0) {
+                        allEmpty = true;
+                        continue;
+                    }
+
+                    //Every node pushed after this one has been fully searched, so their handles can be reused.
+                    workingNode = leftOpen[--leftOpenSize];
+                    stats.openRemoves++;
+                    leftClosed.truncate(workingNode + 1);
+                    if (leftClosed.isIndexed(workingNode)) {
+                        leftClosed.remove(leftClosed.x(workingNode), leftClosed.y(workingNode));
+                        leftExplore++;
+                        if (trace != null) {
+                            trace.record(true, leftClosed.x(workingNode), leftClosed.y(workingNode), leftClosed.g(workingNode), leftClosed.h(workingNode), leftOpenSize);
+                        }
+                        count = genValidNeighbours(leftClosed, workingNode, true);
+                        stats.generated += count;
+                        for (int i = 0; i < count; i++) {
+                            nx = neighbourX[i];
+                            ny = neighbourY[i];
+                            gVal = neighbourG[i];
+                            hVal = neighbourH[i];
+                            if (gVal + Math.ceil(hVal) <= leftCurrDepth) {
+                                //Check if a the position is an end point.
+                                if ((checkNode = rightClosed.find(nx, ny)) >= 0) {
+                                    pathLen = gVal;
+                                    middleFromLeft = leftClosed.append(nx, ny, workingNode, gVal, hVal, neighbourID[i]);
+                                    middleFromRight = checkNode;
+                                    run = false;
+                                    leftOpenSize = 0;
+                                    break;
+                                //Check if we should re-expand a node or not.
+                                } else if (((checkNode = leftClosed.find(nx, ny)) < 0) || (gVal < leftClosed.g(checkNode))) {
+                                    if (checkNode >= 0) {
+                                        stats.reopens++;
+                                    }
+                                    if (leftOpenSize == leftOpen.length) {
+                                        leftOpen = workspace.growStack();
+                                    }
+                                    leftOpen[leftOpenSize++] = leftClosed.add(nx, ny, workingNode, gVal, hVal, neighbourID[i]);
+                                    stats.openInserts++;
+                                    if (leftOpenSize > stats.peakOpen) {
+                                        stats.peakOpen = leftOpenSize;
+                                    }
+                                }
+                            //Find the next minimum integer depth.
+                            } else if (gVal + Math.ceil(hVal) < leftNextDepth) {
                            
-                            leftNextDepth = newNode.gVal + Math.ceil(newNode.hVal);
+                                leftNextDepth = gVal + Math.ceil(hVal);
+                            }
                         }
+                    } else {
+                        stats.stalePops++;
                     }
-                        
-
                 }
-                
-               
-            }
 
-            timeTaken.add(Duration.between(depthStart, Instant.now()).toMillis());
-            leftDepths.add(leftCurrDepth);
-            leftExplored.add(leftExplore);
+                timeTaken.add(Duration.between(depthStart, Instant.now()).toMillis());
+                leftDepths.add(leftCurrDepth);
+                leftExplored.add(leftExplore);
         
-        // Tree-Graph Searches
-        } else if (run && (searchType == SEARCH_TYPE_AS || searchType == SEARCH_TYPE_BDAS)) {
-            if (searchType == SEARCH_TYPE_AS) {
-                System.out.println("Running A*:");
-            } else {
-                System.out.println("Running Bi-Directional A*:");
-            }
-            TreeSet<Node> leftOpen = new TreeSet<Node>();
-            TreeSet<Node> rightOpen = new TreeSet<Node>();
-
-            startTime = Instant.now();
-            if (start.length == 0 || end.length == 0) {
-                run = false;
-            } else {
-                //Add Start Positions.
-                for (int[] pos : start) {
-                    Node newNode = new Node(null, pos, 0, h1.apply(probe, pos, null , start, end), rollingID++);
-                    leftOpen.add(newNode);
-                    leftClosed.put(newNode.getLongPos(), newNode);
+            // Tree-Graph Searches
+            } else if (run && (searchType == SEARCH_TYPE_AS || searchType == SEARCH_TYPE_BDAS || searchType == SEARCH_TYPE_JPS || searchType == SEARCH_TYPE_BDJPS)) {
+                boolean bidirectional = searchType == SEARCH_TYPE_BDAS || searchType == SEARCH_TYPE_BDJPS;
+                boolean jumps = searchType == SEARCH_TYPE_JPS || searchType == SEARCH_TYPE_BDJPS;
+                if (searchType == SEARCH_TYPE_AS) {
+                    log("Running A*:");
+                } else if (searchType == SEARCH_TYPE_BDAS) {
+                    log("Running Bi-Directional A*:");
+                } else if (searchType == SEARCH_TYPE_JPS) {
+                    log("Running Jump Point Search:");
+                } else {
+                    log("Running Bi-Directional Jump Point Search:");
                 }
-                //Add End Positions.
-                for (int[] pos : end) {
-                    Node newNode;
-                    if (searchType == SEARCH_TYPE_BDAS) {
-                        newNode = new Node(null, pos, 0, h2.apply(probe, pos, null, end, start), rollingID++);
-                    } else {
-                        newNode = new Node(null, pos, 0, 0, rollingID++);
-                    }
-                    if ((checkNode = leftClosed.get(newNode.getLongPos())) != null) {
-                        middleFromLeft = checkNode;
-                        middleFromRight = newNode;
-                        pathLen = 0.0;
-                        run = false;
-                        break;
+                OpenList leftOpen = workspace.leftOpen(openListType == OPEN_LIST_BUCKET);
+                OpenList rightOpen = workspace.rightOpen(openListType == OPEN_LIST_BUCKET);
+
+                startTime = Instant.now();
+                if (start.length == 0 || end.length == 0) {
+                    run = false;
+                } else {
+                    //Add Start Positions.
+                    for (int[] pos : start) {
+                        stats.heuristicCalls++;
+                        openNode(leftOpen, leftClosed, leftClosed.add(pos[0], pos[1], -1, 0, this.h1.estimate(pos[0], pos[1], pos[0], pos[1]), rollingID++));
                     }
-                    if (searchType == SEARCH_TYPE_BDAS) {
-                        rightOpen.add(newNode);
+                    //Add End Positions.
+                    for (int[] pos : end) {
+                        if (bidirectional) {
+                            stats.heuristicCalls++;
+                            hVal = this.h2.estimate(pos[0], pos[1], pos[0], pos[1]);
+                        } else {
+                            hVal = 0;
+                        }
+                        if ((checkNode = leftClosed.find(pos[0], pos[1])) >= 0) {
+                            middleFromLeft = checkNode;
+                            middleFromRight = rightClosed.append(pos[0], pos[1], -1, 0, hVal, rollingID++);
+                            pathLen = 0.0;
+                            run = false;
+                            break;
+                        }
+                        if (bidirectional) {
+                            openNode(rightOpen, rightClosed, rightClosed.add(pos[0], pos[1], -1, 0, hVal, rollingID++));
+                        } else {
+                            rightClosed.add(pos[0], pos[1], -1, 0, hVal, rollingID++);
+                        }
                     }
-                    rightClosed.put(newNode.getLongPos(), newNode);
                 }
-            }
-            allEmpty = false;
-            while(run && !allEmpty) {
+                allEmpty = false;
+                while(run && !allEmpty) {
             
-                //Forward searching (left) frontier
-                if ((workingNode = leftOpen.pollFirst()) == null) {
-                    //If this Open set is empty and we have found no path yet, no path exists.
-                    if (pathLen == Double.POSITIVE_INFINITY) {
-                        break;
-                    }
-                    allEmpty = true;
-                } else if (workingNode.gVal + Math.ceil(workingNode.hVal) < pathLen) {
-                    
-                    if ((checkNode = leftClosed.get(workingNode.getLongPos())) != null && workingNode == checkNode) {
-                        leftExplore++;
-                        for (Node newNode : genValidNeighbours(workingNode, true)) {
-                            //Check if the optimal path length can be updated.  
-                            if (newNode.gVal + Math.ceil(newNode.hVal) < pathLen) {
-                                //Check if the current position is an End Point.
-                                if ((checkNode = rightClosed.get(newNode.getLongPos())) != null) {
-                                    if (newNode.gVal + checkNode.gVal < pathLen) {
-                                        pathLen = newNode.gVal + checkNode.gVal;
-                                        middleFromLeft = newNode;
-                                        middleFromRight = checkNode;
-                                        rightOnlyRefine = true;
+                    //Forward searching (left) frontier
+                    if ((workingNode = leftOpen.pop()) < 0) {
+                        //If this Open set is empty and we have found no path yet, no path exists.
+                        if (pathLen == Double.POSITIVE_INFINITY) {
+                            break;
+                        }
+                        allEmpty = true;
+                    } else if (leftClosed.g(workingNode) + Math.ceil(leftClosed.h(workingNode)) < pathLen) {
+                        stats.openRemoves++;
+                        if (leftClosed.isIndexed(workingNode)) {
+                            leftExplore++;
+                            if (trace != null) {
+                                trace.record(true, leftClosed.x(workingNode), leftClosed.y(workingNode), leftClosed.g(workingNode), leftClosed.h(workingNode), leftOpen.size());
+                            }
+                            if (jumps) {
+                                count = genJumpSuccessors(leftClosed, rightClosed, workingNode, true);
+                            } else {
+                                count = genValidNeighbours(leftClosed, workingNode, true);
+                            }
+                            stats.generated += count;
+                            for (int i = 0; i < count; i++) {
+                                nx = neighbourX[i];
+                                ny = neighbourY[i];
+                                gVal = neighbourG[i];
+                                hVal = neighbourH[i];
+                                //Check if the optimal path length can be updated.  
+                                if (gVal + Math.ceil(hVal) < pathLen) {
+                                    //Check if the current position is an End Point.
+                                    if ((checkNode = rightClosed.find(nx, ny)) >= 0) {
+                                        if (gVal + rightClosed.g(checkNode) < pathLen) {
+                                            pathLen = gVal + rightClosed.g(checkNode);
+                                            middleFromLeft = leftClosed.append(nx, ny, workingNode, gVal, hVal, neighbourID[i]);
+                                            middleFromRight = checkNode;
+                                            rightOnlyRefine = true;
+                                        }
+                                        //Jump point searches carry on through the other frontier, so that each frontier can still find the optimal path on its own.
+                                        if (!jumps) {
+                                            continue;
+                                        }
                                     }
-                                } else if (!((checkNode = leftClosed.get(newNode.getLongPos())) == null && leftOnlyRefine)) {
-                                    //If the current position was already explored, see if it can be improved.
-                                    if (checkNode != null) {
-                                        if (newNode.gVal < checkNode.gVal) {
-                                            leftOpen.remove(checkNode);
+                                    if (!((checkNode = leftClosed.find(nx, ny)) < 0 && leftOnlyRefine && !jumps)) {
+                                        //If the current position was already explored, see if it can be improved.
+                                        if (checkNode < 0) {
+                                            checkNode = leftClosed.add(nx, ny, workingNode, gVal, hVal, neighbourID[i]);
+                                        } else if (gVal < leftClosed.g(checkNode)) {
+                                            stats.reopens++;
+                                            leftClosed.update(checkNode, workingNode, gVal, hVal, neighbourID[i]);
                                         } else {
                                             continue;
                                         }
+                                        openNode(leftOpen, leftClosed, checkNode);
                                     }
-                                    leftOpen.add(newNode);
-                                    leftClosed.put(newNode.getLongPos(), newNode);
-                                }
                                 
+                                }
                             }
+                        } else {
+                            stats.stalePops++;
                         }
-                    }
                     
-                } else {
-                    allEmpty = true;
-                    rightOnlyRefine = true;
-                    leftOpen.clear();
-                }
+                    } else {
+                        stats.openRemoves++;
+                        allEmpty = true;
+                        rightOnlyRefine = true;
+                        leftOpen.clear();
+                    }
                 
-                //Backward searching (right) frontier.
-                if (searchType == SEARCH_TYPE_BDAS) {
-                    if ((workingNode = rightOpen.pollFirst()) == null) {
-                        //If this Open set is empty and we have found no path yet, no path exists.
-                        if (pathLen == Double.POSITIVE_INFINITY) {
-                            break;
-                        }
-                    } else if (workingNode.gVal + Math.ceil(workingNode.hVal) < pathLen) {
-
-                        if ((checkNode = rightClosed.get(workingNode.getLongPos())) != null && workingNode == checkNode) {
-                            rightExplore++;    
-                            for (Node newNode : genValidNeighbours(workingNode, false)) {
-                                //Check if the optimal path length can be updated.
-                                if (newNode.gVal + Math.ceil(newNode.hVal) < pathLen) {
-                                    //Check if the current position is a Start Point.
-                                    if ((checkNode = leftClosed.get(newNode.getLongPos())) != null) {
-                                        if (newNode.gVal + checkNode.gVal < pathLen) {
-                                            pathLen = newNode.gVal + checkNode.gVal;
-                                            middleFromLeft = checkNode;
-                                            middleFromRight = newNode;
-                                            rightOnlyRefine = true;
+                    //Backward searching (right) frontier.
+                    if (bidirectional) {
+                        if ((workingNode = rightOpen.pop()) < 0) {
+                            //If this Open set is empty and we have found no path yet, no path exists.
+                            if (pathLen == Double.POSITIVE_INFINITY) {
+                                break;
+                            }
+                        } else if (rightClosed.g(workingNode) + Math.ceil(rightClosed.h(workingNode)) < pathLen) {
+                            stats.openRemoves++;
+                            if (rightClosed.isIndexed(workingNode)) {
+                                rightExplore++;    
+                                if (trace != null) {
+                                    trace.record(false, rightClosed.x(workingNode), rightClosed.y(workingNode), rightClosed.g(workingNode), rightClosed.h(workingNode), rightOpen.size());
+                                }
+                                if (jumps) {
+                                    count = genJumpSuccessors(rightClosed, leftClosed, workingNode, false);
+                                } else {
+                                    count = genValidNeighbours(rightClosed, workingNode, false);
+                                }
+                                stats.generated += count;
+                                for (int i = 0; i < count; i++) {
+                                    nx = neighbourX[i];
+                                    ny = neighbourY[i];
+                                    gVal = neighbourG[i];
+                                    hVal = neighbourH[i];
+                                    //Check if the optimal path length can be updated.
+                                    if (gVal + Math.ceil(hVal) < pathLen) {
+                                        //Check if the current position is a Start Point.
+                                        if ((checkNode = leftClosed.find(nx, ny)) >= 0) {
+                                            if (gVal + leftClosed.g(checkNode) < pathLen) {
+                                                pathLen = gVal + leftClosed.g(checkNode);
+                                                middleFromLeft = checkNode;
+                                                middleFromRight = rightClosed.append(nx, ny, workingNode, gVal, hVal, neighbourID[i]);
+                                                rightOnlyRefine = true;
+                                            }
+                                            if (!jumps) {
+                                                continue;
+                                            }
                                         }
-                                    } else if (!((checkNode = rightClosed.get(newNode.getLongPos())) == null && rightOnlyRefine)) {
-                                        //If the current position was already explored, see if it can be improved.
-                                        if (checkNode != null) {
-                                            if (newNode.gVal < checkNode.gVal) {
-                                                rightOpen.remove(checkNode);
+                                        if (!((checkNode = rightClosed.find(nx, ny)) < 0 && rightOnlyRefine && !jumps)) {
+                                            //If the current position was already explored, see if it can be improved.
+                                            if (checkNode < 0) {
+                                                checkNode = rightClosed.add(nx, ny, workingNode, gVal, hVal, neighbourID[i]);
+                                            } else if (gVal < rightClosed.g(checkNode)) {
+                                                stats.reopens++;
+                                                rightClosed.update(checkNode, workingNode, gVal, hVal, neighbourID[i]);
                                             } else {
                                                 continue;
                                             }
-                                        }
-                                        rightOpen.add(newNode);
-                                        rightClosed.put(newNode.getLongPos(), newNode);
+                                            openNode(rightOpen, rightClosed, checkNode);
                                         
-                                    }
+                                        }
                                     
+                                    }
                                 }
+                            } else {
+                                stats.stalePops++;
                             }
-                        }
                         
-                    } else {
-                        leftOnlyRefine = true;
-                        rightOpen.clear();
+                        } else {
+                            stats.openRemoves++;
+                            leftOnlyRefine = true;
+                            rightOpen.clear();
+                        }
                     }
                 }
-            }
-            Instant finishTime = Instant.now();
-            timeTaken.add(Duration.between(startTime, finishTime).toMillis());
+                Instant finishTime = Instant.now();
+                timeTaken.add(Duration.between(startTime, finishTime).toMillis());
+
+                leftDepths.add(Double.POSITIVE_INFINITY);
+                leftExplored.add(leftExplore);
+                if (bidirectional) {
+                    rightDepths.add(Double.POSITIVE_INFINITY);
+                    rightExplored.add(rightExplore);
+                }
+
+            // Parallel Bi-Directional Search
+            } else if (run && searchType == SEARCH_TYPE_PBDAS) {
+                log("Running Parallel Bi-Directional A*:");
+                OpenList leftOpen = workspace.leftOpen(openListType == OPEN_LIST_BUCKET);
+                OpenList rightOpen = workspace.rightOpen(openListType == OPEN_LIST_BUCKET);
+                SharedGTable leftG = workspace.leftG(), rightG = workspace.rightG();
+                Meeting meeting = new Meeting();
+
+                startTime = Instant.now();
+                if (start.length == 0 || end.length == 0) {
+                    run = false;
+                } else {
+                    //Add Start and End Positions.
+                    for (int[] pos : start) {
+                        stats.heuristicCalls++;
+                        openNode(leftOpen, leftClosed, leftClosed.add(pos[0], pos[1], -1, 0, this.h1.estimate(pos[0], pos[1], pos[0], pos[1]), rollingID++));
+                        leftG.put(pos[0], pos[1], 0);
+                    }
+                    for (int[] pos : end) {
+                        if (leftClosed.contains(pos[0], pos[1])) {
+                            meeting.offer(0, pos[0], pos[1]);
+                        }
+                        stats.heuristicCalls++;
+                        openNode(rightOpen, rightClosed, rightClosed.add(pos[0], pos[1], -1, 0, this.h2.estimate(pos[0], pos[1], pos[0], pos[1]), rollingID++));
+                        rightG.put(pos[0], pos[1], 0);
+                    }
+                    run = meeting.pathLen > 0;
+                }
+
+                if (run) {
+                    //The backward frontier is searched by a worker with its own scratch space, on its own thread.
+                    SearchContext helper = new SearchContext(start, end, false, null, true);
+                    helper.h2 = helper.prepare(h2, end, start);
+                    long[] helperExplore = new long[1];
+                    Throwable[] helperError = new Throwable[1];
+                    Thread backward = new Thread(() -> {
+                        try {
+                            helperExplore[0] = helper.expandConcurrently(rightOpen, rightClosed, rightG, leftG, meeting, false);
+                        } catch (Throwable ex) {
+                            helperError[0] = ex;
+                            meeting.done = true;
+                        }
+                    }, "Lattice2D-backward");
+                    backward.start();
+                    try {
+                        leftExplore = expandConcurrently(leftOpen, leftClosed, leftG, rightG, meeting, true);
+                    } finally {
+                        meeting.done = true;
+                        boolean interrupted = false;
+                        while (backward.isAlive()) {
+                            try {
+                                backward.join();
+                            } catch (InterruptedException ex) {
+                                interrupted = true;
+                            }
+                        }
+                        if (interrupted) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    if (helperError[0] != null) {
+                        throw new IllegalStateException("Backward frontier failed", helperError[0]);
+                    }
+                    rightExplore = helperExplore[0];
+                    stats.add(helper.stats);
+                }
+
+                //Both frontiers hold the meeting position, their g values there add up to the optimal path length.
+                if (meeting.pathLen < Double.POSITIVE_INFINITY) {
+                    middleFromLeft = leftClosed.find(meeting.x, meeting.y);
+                    middleFromRight = rightClosed.find(meeting.x, meeting.y);
+                    pathLen = leftClosed.g(middleFromLeft) + rightClosed.g(middleFromRight);
+                }
 
-            leftDepths.add(Double.POSITIVE_INFINITY);
-            leftExplored.add(leftExplore);
-            if (searchType == SEARCH_TYPE_BDAS) {
+                timeTaken.add(Duration.between(startTime, Instant.now()).toMillis());
+                leftDepths.add(Double.POSITIVE_INFINITY);
+                leftExplored.add(leftExplore);
                 rightDepths.add(Double.POSITIVE_INFINITY);
                 rightExplored.add(rightExplore);
-            }
-        }
 
-        
-        
-        //Generate the optimal path if it exists.
-        LinkedList<int[]> path;
-        if (pathLen < Double.POSITIVE_INFINITY) {
-            path = new LinkedList<int[]>();
-            while (middleFromLeft != null) {
-                path.addFirst(middleFromLeft.pos);
-                middleFromLeft = middleFromLeft.parent;
+            // Hash Distributed Search
+            } else if (run && searchType == SEARCH_TYPE_HDAS) {
+                log("Running Hash Distributed A* (" + searchThreads + " threads):");
+                HashPartition[] partitions = new HashPartition[searchThreads];
+                for (int i = 0; i < searchThreads; i++) {
+                    SearchContext worker = i == 0 ? this : new SearchContext(start, end, false, null, true);
+                    if (i > 0) {
+                        worker.h1 = worker.prepare(h1, start, end);
+                    }
+                    partitions[i] = new HashPartition(worker, workspace.partitionClosed(i), workspace.partitionOpen(i, openListType == OPEN_LIST_BUCKET),
+                        workspace.partitionParents(i), searchThreads);
+                }
+                for (int[] pos : end) {
+                    rightClosed.add(pos[0], pos[1], -1, 0, 0, rollingID++);
+                }
+                HashDistribution dist = new HashDistribution(partitions, rightClosed);
+
+                startTime = Instant.now();
+                //Add Start Positions, each to the worker that owns it.
+                for (int[] pos : start) {
+                    HashPartition part = partitions[dist.owner(pos[0], pos[1])];
+                    part.context.stats.heuristicCalls++;
+                    part.context.receiveNode(dist, part, pos[0], pos[1], getLongPos(pos[0], pos[1]), 0,
+                        part.context.h1.estimate(pos[0], pos[1], pos[0], pos[1]));
+                }
+
+                Throwable[] workerError = new Throwable[1];
+                partitions[0].thread = Thread.currentThread();
+                for (int i = 1; i < searchThreads; i++) {
+                    final int self = i;
+                    partitions[i].thread = new Thread(() -> {
+                        try {
+                            partitions[self].context.expandPartition(dist, self);
+                        } catch (Throwable ex) {
+                            workerError[0] = ex;
+                            dist.finish();
+                        }
+                    }, "Lattice2D-worker-" + i);
+                }
+                for (int i = 1; i < searchThreads; i++) {
+                    partitions[i].thread.start();
+                }
+                try {
+                    expandPartition(dist, 0);
+                } finally {
+                    dist.finish();
+                    boolean interrupted = false;
+                    for (int i = 1; i < searchThreads; i++) {
+                        while (partitions[i].thread.isAlive()) {
+                            try {
+                                partitions[i].thread.join();
+                            } catch (InterruptedException ex) {
+                                interrupted = true;
+                            }
+                        }
+                    }
+                    if (interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                if (workerError[0] != null) {
+                    throw new IllegalStateException("Search worker failed", workerError[0]);
+                }
+
+                //Gather the partitions into one closed set, linking every node to its parent position.
+                long partitioned = rightClosed.size();
+                for (HashPartition part : partitions) {
+                    leftExplore += part.explored;
+                    partitioned += part.closed.size();
+                    if (part.context != this) {
+                        stats.add(part.context.stats);
+                    }
+                    for (int node = 0; node < part.closed.handleCount(); node++) {
+                        if (part.closed.isIndexed(node)) {
+                            leftClosed.add(part.closed.x(node), part.closed.y(node), -1, part.closed.g(node), part.closed.h(node), part.closed.id(node));
+                        }
+                    }
+                }
+                stats.peakClosed = Math.max(stats.peakClosed, partitioned);
+                for (int i = 0; i < searchThreads; i++) {
+                    HashPartition part = partitions[i];
+                    workspace.keepPartitionParents(i, part.parents);
+                    for (int node = 0; node < part.closed.handleCount(); node++) {
+                        if (part.closed.isIndexed(node) && part.parents[node] != getLongPos(part.closed.x(node), part.closed.y(node))) {
+                            leftClosed.update(leftClosed.find(part.closed.x(node), part.closed.y(node)),
+                                leftClosed.find((int) (part.parents[node] >> 32), (int) part.parents[node]),
+                                part.closed.g(node), part.closed.h(node), part.closed.id(node));
+                        }
+                    }
+                }
+                if (dist.meeting.pathLen < Double.POSITIVE_INFINITY) {
+                    middleFromLeft = leftClosed.find(dist.meeting.x, dist.meeting.y);
+                    middleFromRight = rightClosed.find(dist.meeting.x, dist.meeting.y);
+                    pathLen = leftClosed.g(middleFromLeft);
+                }
+
+                timeTaken.add(Duration.between(startTime, Instant.now()).toMillis());
+                leftDepths.add(Double.POSITIVE_INFINITY);
+                leftExplored.add(leftExplore);
             }
 
-            middleFromRight = middleFromRight.parent;
-            while (middleFromRight != null) {
-                path.addLast(middleFromRight.pos);
-                middleFromRight = middleFromRight.parent;
+            long pathStart = System.nanoTime();
+            stats.searchNanos = pathStart - searchStart;
+            stats.peakClosed = Math.max(stats.peakClosed, leftClosed.size() + rightClosed.size());
+
+            //Generate the optimal path if it exists (filling in the straight segments between jump points).
+            LinkedList<int[]> path;
+            if (pathLen < Double.POSITIVE_INFINITY) {
+                path = new LinkedList<int[]>();
+                int x, y, parent;
+                path.addFirst(new int[] {leftClosed.x(middleFromLeft), leftClosed.y(middleFromLeft)});
+                for (int node = middleFromLeft; (parent = leftClosed.parent(node)) >= 0; node = parent) {
+                    x = leftClosed.x(node);
+                    y = leftClosed.y(node);
+                    while (x != leftClosed.x(parent) || y != leftClosed.y(parent)) {
+                        x += Integer.signum(leftClosed.x(parent) - x);
+                        y += Integer.signum(leftClosed.y(parent) - y);
+                        path.addFirst(new int[] {x, y});
+                    }
+                }
+
+                for (int node = middleFromRight; (parent = rightClosed.parent(node)) >= 0; node = parent) {
+                    x = rightClosed.x(node);
+                    y = rightClosed.y(node);
+                    while (x != rightClosed.x(parent) || y != rightClosed.y(parent)) {
+                        x += Integer.signum(rightClosed.x(parent) - x);
+                        y += Integer.signum(rightClosed.y(parent) - y);
+                        path.addLast(new int[] {x, y});
+                    }
+                }
+            } else {
+                path = null;
             }
-        } else {
-            path = null;
+
+            //Calculate Results and return
+            SearchResults ret = new SearchResults(Lattice2D.this.probe, start, end, path, pathLen, leftClosed, rightClosed, leftDepths, rightDepths, leftExplored, rightExplored, timeTaken);
+            stats.expanded = ret.totalExplore;
+            stats.pathNanos = System.nanoTime() - pathStart;
+            ret.stats = stats;
+            log("Search Completed: Optimal Path Length: " + Double.toString(pathLen) + " || Total Nodes Explored: " + ret.totalExplore + " || Time(ms): " + ret.totalTime + "\n");
+            return ret;
         }
+    }
 
-        //Calculate Results and return
-        SearchResults ret = new SearchResults(probe, start, end, path, pathLen, leftClosed, rightClosed, leftDepths, rightDepths, leftExplored, rightExplored, timeTaken);
-        System.out.println("Search Completed: Optimal Path Length: " + Double.toString(pathLen) + " || Total Nodes Explored: " + ret.totalExplore + " || Time(ms): " + ret.totalTime + "\n");
-        this.h1 = null;
-        this.h2 = null;
-        this.leftClosed = null;
-        this.rightClosed = null;
-        return ret;
+    /**
+     * Searches the lattice with a specific search method and hueristic(s).
+     *
+     * @param h1 the primary hueristic (see the Heuristic interface), prepared with the start points as its start and the end points as its goals.
+     * @param h2 the secondary hueristic (used for the backwards search in the Bi-Directional searches), prepared with the end points
+     *           as its start and the start points as its goals. May be null for the other searches.
+     * @param searchType the search type to use, see class constants.
+     * @return a SearchResults data structure containing all the pertinent information regarding the search.
+     */
+    public SearchResults solve(Heuristic h1, Heuristic h2, int searchType) {
+        return solve(h1, h2, searchType, OPEN_LIST_HEAP);
+    }
+
+    /**
+     * Searches the lattice with a specific search method and legacy hueristic lambda function(s).
+     *
+     * @param h1 the primary hueristic lambda function. It should take a probe function (see 2DLattice Constructor), an [x, y] position, 
+     *           a parent node and the start and end points and return a value.
+     * @param h2 the secondary hueristic lambda function (used for the backwards search in Bi-Directional A*). It should take a probe function (see 2DLattice Constructor), 
+     *           an [x, y] position, a parent node and the start and end points and return a value.
+     * @param searchType the search type to use, see class constants.
+     * @return a SearchResults data structure containing all the pertinent information regarding the search.
+     */
+    public SearchResults solve(Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> h1, Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> h2, int searchType) {
+        return solve(h1, h2, searchType, OPEN_LIST_HEAP);
+    }
+
+    /**
+     * Searches the lattice with a specific search method, legacy hueristic lambda function(s) and open list. Nodes are kept in the primitive
+     * node pools of the closed sets, so the parent node passed to the hueristics is a reused view of the expanded node that
+     * only carries its position, g value, h value and ID (its own parent is always null), and the position passed along
+     * with it is only valid for the duration of the call. The search runs in the calling thread's workspace for this lattice.
+     *
+     * @param h1 the primary hueristic lambda function (see above).
+     * @param h2 the secondary hueristic lambda function (see above).
+     * @param searchType the search type to use, see class constants.
+     * @param openListType the open list to use for the graph searches, see class constants.
+     * @return a SearchResults data structure containing all the pertinent information regarding the search.
+     */
+    public SearchResults solve(Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> h1, Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> h2, int searchType, int openListType) {
+        SearchContext context = new SearchContext(start, end, true, workspaces.get(), false);
+        return context.solve(legacyHeuristic(h1), legacyHeuristic(h2), searchType, openListType);
+    }
+
+    /**
+     * Searches the lattice with a specific search method, hueristic(s) and open list. Every call searches in its own
+     * context and only reads the lattice, so several threads may solve the same lattice at the same time as long as the
+     * probe is thread-safe (see LatticeProbe.isThreadSafe, otherwise use solveAsync or solveAll). The search runs in the
+     * calling thread's workspace for this lattice, so back to back searches reuse their memory.
+     *
+     * @param h1 the primary hueristic (see above).
+     * @param h2 the secondary hueristic (see above).
+     * @param searchType the search type to use, see class constants.
+     * @param openListType the open list to use for the graph searches, see class constants. The bucket queue is only
+     *                     used while all hueristic values are whole numbers, and falls back to the heap otherwise.
+     * @return a SearchResults data structure containing all the pertinent information regarding the search.
+     */
+    public SearchResults solve(Heuristic h1, Heuristic h2, int searchType, int openListType) {
+        return solve(h1, h2, searchType, openListType, workspaces.get());
+    }
+
+    /**
+     * Searches the lattice with a specific search method and hueristic(s) in a reusable workspace.
+     *
+     * @param h1 the primary hueristic (see above).
+     * @param h2 the secondary hueristic (see above).
+     * @param searchType the search type to use, see class constants.
+     * @param workspace the memory to search in, reused from earlier searches (see SearchWorkspace). Only one search may use a workspace at a time.
+     * @return a SearchResults data structure containing all the pertinent information regarding the search.
+     */
+    public SearchResults solve(Heuristic h1, Heuristic h2, int searchType, SearchWorkspace workspace) {
+        return solve(h1, h2, searchType, OPEN_LIST_HEAP, workspace);
+    }
+
+    /**
+     * Searches the lattice with a specific search method, hueristic(s) and open list in a reusable workspace.
+     *
+     * @param h1 the primary hueristic (see above).
+     * @param h2 the secondary hueristic (see above).
+     * @param searchType the search type to use, see class constants.
+     * @param openListType the open list to use for the graph searches, see class constants.
+     * @param workspace the memory to search in, reused from earlier searches (see SearchWorkspace). Only one search may use a workspace at a time.
+     * @return a SearchResults data structure containing all the pertinent information regarding the search.
+     */
+    public SearchResults solve(Heuristic h1, Heuristic h2, int searchType, int openListType, SearchWorkspace workspace) {
+        return new SearchContext(start, end, true, workspace, false).solve(h1, h2, searchType, openListType);
+    }
+
+    /**
+     * Runs a single query quietly, with its own start and end points, in a reusable workspace.
+     *
+     * @param query The query to run.
+     * @param workspace The memory to search in, reused from earlier searches (see SearchWorkspace). Only one search may use a workspace at a time.
+     * @return The results of the query.
+     */
+    public SearchResults solve(Query query, SearchWorkspace workspace) {
+        SearchContext context = new SearchContext(scrub(sharedProbe, query.start, "start", false), scrub(sharedProbe, query.end, "end", false), false, workspace, true);
+        return context.solve(query.h1, query.h2, query.searchType, query.openListType);
+    }
+
+
+    /**
+     * Runs a single query in the calling thread's workspace for this lattice.
+     *
+     * @param query The query to run.
+     * @return The results of the query.
+     */
+    private SearchResults solveQuery(Query query) {
+        return solve(query, workspaces.get());
+    }
+
+    /**
+     * Runs a query asynchronously against this lattice. Queries do not print progress information.
+     * Calls to a probe that is not thread-safe (see LatticeProbe.isThreadSafe) are serialized between concurrent queries.
+     *
+     * @param query The query to run.
+     * @param executor The executor that runs the query.
+     * @return A future completed with the results of the query.
+     */
+    public CompletableFuture<SearchResults> solveAsync(Query query, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> solveQuery(query), executor);
+    }
+
+    /**
+     * Runs a query asynchronously against this lattice on the common fork-join pool (see solveAsync(Query, Executor)).
+     *
+     * @param query The query to run.
+     * @return A future completed with the results of the query.
+     */
+    public CompletableFuture<SearchResults> solveAsync(Query query) {
+        return solveAsync(query, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs a batch of queries against this lattice in parallel and waits for all of them (see solveAsync(Query, Executor)).
+     *
+     * @param queries The queries to run.
+     * @param executor The executor that runs the queries.
+     * @return The results of every query, in the same order as the queries.
+     * @throws CompletionException If any query failed.
+     */
+    public List<SearchResults> solveAll(List<Query> queries, Executor executor) {
+        ArrayList<CompletableFuture<SearchResults>> futures = new ArrayList<CompletableFuture<SearchResults>>(queries.size());
+        for (Query query : queries) {
+            futures.add(solveAsync(query, executor));
+        }
+
+        ArrayList<SearchResults> results = new ArrayList<SearchResults>(queries.size());
+        for (CompletableFuture<SearchResults> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * Runs a batch of queries against this lattice in parallel on the common fork-join pool (see solveAll(List, Executor)).
+     *
+     * @param queries The queries to run.
+     * @return The results of every query, in the same order as the queries.
+     */
+    public List<SearchResults> solveAll(List<Query> queries) {
+        return solveAll(queries, ForkJoinPool.commonPool());
     }
 
     //Main method, for searching lattices on the fly.
@@ -1329,13 +2872,25 @@ public class Lattice2D {
                 case "BDAS":
                     alg = SEARCH_TYPE_BDAS;
                     break;
+                case "JPS":
+                    alg = SEARCH_TYPE_JPS;
+                    break;
+                case "BDJPS":
+                    alg = SEARCH_TYPE_BDJPS;
+                    break;
+                case "PBDAS":
+                    alg = SEARCH_TYPE_PBDAS;
+                    break;
+                case "HDAS":
+                    alg = SEARCH_TYPE_HDAS;
+                    break;
                 default:
                     System.out.println("No valid algorithm string, should be:\nASID for A* Iterative Deepenig\nDFID for Depth First Iterative Deepening\n"
-                        + "\nAS for A* \nBDAS for Bi-Directional A*");
+                        + "\nAS for A* \nBDAS for Bi-Directional A*\nJPS for Jump Point Search\nBDJPS for Bi-Directional Jump Point Search\nPBDAS for Parallel Bi-Directional A*\nHDAS for Hash Distributed A*");
                     return;
             }
 
-            Function5<Function<int[], Boolean>, int[], Node, int[][], int[][], Double> heuristic;
+            Heuristic heuristic;
 
             switch (args[6]) {
                 case "SLD":
@@ -1356,8 +2911,11 @@ public class Lattice2D {
                     return;
             }
 
-            Lattice2D search = new Lattice2D(args[0], start, end);
-            search.solve(heuristic, heuristic, alg).genFolder(args[7]);
+            try (Lattice2D search = new Lattice2D(args[0], start, end)) {
+                search.solve(heuristic, heuristic, alg).genFolder(args[7]);
+            } catch (IOException ex) {
+                System.out.println("Error: Board File could not be closed: " + ex.getMessage());
+            }
 
 
 
@@ -0,0 +1,92 @@
+import java.util.function.Function;
+
+/**
+ * A primitive view of a lattice: tells whether a position is occupied without allocating a position array or boxing the result.
+ * Positions outside a bounded lattice should be reported as occupied.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+@FunctionalInterface
+public interface LatticeProbe {
+
+    /**
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return True if the position is occupied, False if it is empty.
+     */
+    public boolean isBlocked(int x, int y);
+
+    /**
+     * Tells whether isBlocked may be called by several threads at once. Probes that do not say so are only ever called by
+     * one thread at a time: the parallel search types and concurrent queries serialize their calls (see synchronizedProbe),
+     * and images of the results are rasterized on a single thread.
+     *
+     * @return True if the probe is thread-safe. False by default.
+     */
+    public default boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * Wraps a probe so that calls to it are serialized, which makes it safe to share between threads.
+     * A probe that is already thread-safe is returned as is.
+     *
+     * @param probe The probe.
+     * @return A thread-safe view of the probe.
+     */
+    public static LatticeProbe synchronizedProbe(LatticeProbe probe) {
+        if (probe.isThreadSafe()) {
+            return probe;
+        }
+        return new LatticeProbe() {
+            @Override
+            public synchronized boolean isBlocked(int x, int y) {
+                return probe.isBlocked(x, y);
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Adapts a legacy probe function, which takes a position [x, y] and returns True if it is occupied.
+     * A view created with asFunction is unwrapped instead of adapted.
+     *
+     * @param probe The probe function.
+     * @return The probe as a LatticeProbe.
+     */
+    public static LatticeProbe of(Function<int[], Boolean> probe) {
+        if (probe instanceof FunctionView) {
+            return ((FunctionView) probe).lattice;
+        }
+        return (x, y) -> probe.apply(new int[] {x, y});
+    }
+
+    /**
+     * @return A view of this probe as a legacy probe function (e.g. for hueristics that take a Function), which LatticeProbe.of unwraps again.
+     */
+    public default Function<int[], Boolean> asFunction() {
+        return new FunctionView(this);
+    }
+
+    /**
+     * A LatticeProbe seen as a legacy probe function.
+     */
+    public static final class FunctionView implements Function<int[], Boolean> {
+        private final LatticeProbe lattice;
+
+        private FunctionView(LatticeProbe lattice) {
+            this.lattice = lattice;
+        }
+
+        @Override
+        public Boolean apply(int[] pos) {
+            return lattice.isBlocked(pos[0], pos[1]);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from long keys to non-negative int values, using linear probing and no boxing.
+ * Used to index lattice positions (see Lattice2D.getLongPos) when the lattice has no known bounds.
+ * Every slot is stamped with the generation it was written in, so clearing the map only advances the generation.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class LongIntMap {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys;
+    private int[] values;
+    private int[] stamps;   //A slot is empty unless its stamp is the current generation
+    private int generation = 1;
+    private int mask;
+    private int size;
+
+    public LongIntMap() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        stamps = new int[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+        size = 0;
+    }
+
+    /**
+     * @return The number of keys in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param key The key to look up.
+     * @return The value stored for the key, or -1 if the key is not present.
+     */
+    public int get(long key) {
+        int slot = hash(key) & mask;
+        while (stamps[slot] == generation) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Stores a value for a key, replacing any previous value.
+     *
+     * @param key The key.
+     * @param value A non-negative value.
+     */
+    public void put(long key, int value) {
+        int slot = hash(key) & mask;
+        while (stamps[slot] == generation) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        stamps[slot] = generation;
+        if (++size > (mask + 1) >>> 1) {
+            rehash((mask + 1) << 1);
+        }
+    }
+
+    /**
+     * Removes a key from the map if it is present.
+     *
+     * @param key The key to remove.
+     */
+    public void remove(long key) {
+        int slot = hash(key) & mask;
+        while (stamps[slot] == generation) {
+            if (keys[slot] == key) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (stamps[slot] != generation) {
+            return;
+        }
+
+        //Shift later entries of the probe sequence back so that no lookups are broken by the gap.
+        int gap = slot, home;
+        stamps[gap] = 0;
+        size--;
+        slot = (gap + 1) & mask;
+        while (stamps[slot] == generation) {
+            home = hash(keys[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                stamps[gap] = generation;
+                stamps[slot] = 0;
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Removes all keys from the map in constant time (by starting a new generation), keeping its capacity.
+     */
+    public void clear() {
+        if (size > 0) {
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(stamps, 0);
+                generation = 1;
+            }
+            size = 0;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldStamps = stamps;
+        keys = new long[capacity];
+        values = new int[capacity];
+        stamps = new int[capacity];
+        mask = capacity - 1;
+
+        int slot;
+        for (int i = 0; i < oldStamps.length; i++) {
+            if (oldStamps[i] == generation) {
+                slot = hash(oldKeys[i]) & mask;
+                while (stamps[slot] == generation) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                stamps[slot] = generation;
+            }
+        }
+    }
+
+    /**
+     * Mixes all the bits of a key (the MurmurHash3 finalizer), since positions packed as longs differ mostly in their low bits.
+     */
+    static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,219 @@
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A bounded lattice probed straight from a memory-mapped binary lattice file, so the lattice is never parsed or copied onto the
+ * heap and only the pages that are probed are read from disk.
+ *
+ * The binary format is a 16 byte header (the magic number "L2DB", the format version, the width and the height, as big-endian
+ * ints) followed by the same packed rows as a BitGrid: one bit per position (1 is occupied), 64 positions per little-endian long,
+ * every row starting on a fresh long and the padding bits past the end of a row set. Files larger than 2GB are mapped in several
+ * segments.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class MappedGrid implements LatticeProbe {
+
+    private static final int MAGIC = 0x4c324442;       //"L2DB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int SEGMENT_SHIFT = 27;        //Longs per mapped segment (1GB)
+
+    private final int width, height;
+    private final int wordsPerRow;
+    private final ByteBuffer[] segments;
+
+    private MappedGrid(int width, int height, ByteBuffer[] segments) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.segments = segments;
+    }
+
+    /**
+     * Maps a binary lattice file. The file is only read when positions are probed, and can be closed as soon as it is mapped.
+     *
+     * @param fname The name of the binary lattice file.
+     * @return The lattice.
+     * @throws IOException If the file could not be mapped, or is not a binary lattice file.
+     */
+    public static MappedGrid open(String fname) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fname), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException(fname + " is not a binary lattice file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(fname + " has unsupported binary lattice version " + version);
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            if (width < 0 || height < 0) {
+                throw new IOException(fname + " has invalid lattice dimensions " + width + "x" + height);
+            }
+
+            long words = (long) ((width + 63) >>> 6) * height;
+            if (channel.size() < HEADER_BYTES + (words << 3)) {
+                throw new IOException(fname + " is truncated: " + width + "x" + height + " needs " + (HEADER_BYTES + (words << 3)) + " bytes");
+            }
+
+            ByteBuffer[] segments = new ByteBuffer[(int) ((words + (1L << SEGMENT_SHIFT) - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long length = Math.min(1L << SEGMENT_SHIFT, words - first) << 3;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + (first << 3), length).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new MappedGrid(width, height, segments);
+        }
+    }
+
+    /**
+     * @param fname The name of a lattice file.
+     * @return True if the file starts with the magic number of a binary lattice file.
+     */
+    public static boolean isBinary(String fname) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(fname))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Converts a text lattice file (the character '0' is an empty space and any other character is occupied, one row per line,
+     * see BitGrid.read) to a binary lattice file. The text file is read twice, once to size the lattice and once to write it a
+     * row at a time, so only a single row is ever held in memory.
+     *
+     * @param textName The name of the text lattice file.
+     * @param binaryName The name of the binary lattice file to write.
+     * @throws IOException If either file could not be read or written.
+     */
+    public static void convert(String textName, String binaryName) throws IOException {
+        int width = 0, height = 0;
+        String line;
+        try (BufferedReader in = new BufferedReader(new FileReader(textName))) {
+            while ((line = in.readLine()) != null) {
+                width = Math.max(width, line.length());
+                height++;
+            }
+        }
+
+        int wordsPerRow = (width + 63) >>> 6;
+        try (BufferedReader in = new BufferedReader(new FileReader(textName));
+             FileChannel out = FileChannel.open(Paths.get(binaryName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(out, width, height);
+            ByteBuffer row = ByteBuffer.allocate(wordsPerRow << 3).order(ByteOrder.LITTLE_ENDIAN);
+            long word;
+            for (int y = 0; y < height; y++) {
+                line = in.readLine();
+                row.clear();
+                for (int w = 0; w < wordsPerRow; w++) {
+                    word = 0;
+                    for (int bit = 0, x = w << 6; bit < 64; bit++, x++) {
+                        if (x >= width || line == null || x >= line.length() || line.charAt(x) != '0') {
+                            word |= 1L << bit;
+                        }
+                    }
+                    row.putLong(word);
+                }
+                row.flip();
+                while (row.hasRemaining()) {
+                    out.write(row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a packed lattice to a binary lattice file.
+     *
+     * @param grid The lattice.
+     * @param binaryName The name of the binary lattice file to write.
+     * @throws IOException If the file could not be written.
+     */
+    public static void write(BitGrid grid, String binaryName) throws IOException {
+        int wordsPerRow = (grid.width() + 63) >>> 6;
+        try (FileChannel out = FileChannel.open(Paths.get(binaryName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(out, grid.width(), grid.height());
+            ByteBuffer row = ByteBuffer.allocate(wordsPerRow << 3).order(ByteOrder.LITTLE_ENDIAN);
+            for (int y = 0; y < grid.height(); y++) {
+                row.clear();
+                for (int w = 0; w < wordsPerRow; w++) {
+                    row.putLong(grid.window(w << 6, y));
+                }
+                row.flip();
+                while (row.hasRemaining()) {
+                    out.write(row);
+                }
+            }
+        }
+    }
+
+    private static void writeHeader(FileChannel out, int width, int height) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height);
+        header.flip();
+        while (header.hasRemaining()) {
+            out.write(header);
+        }
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /**
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return True if the position is occupied or outside the lattice.
+     */
+    @Override
+    public boolean isBlocked(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return true;
+        }
+        long word = (long) y * wordsPerRow + (x >>> 6);
+        return (segments[(int) (word >>> SEGMENT_SHIFT)].getLong((int) (word & ((1L << SEGMENT_SHIFT) - 1)) << 3) & (1L << x)) != 0;
+    }
+
+    /**
+     * @return True: probes only read the mapped file.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Converts a text lattice file to a binary lattice file.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Wrong Number of Arguments The format should be:\n[Text Lattice File Name] [Binary Lattice File Name]");
+            return;
+        }
+        try {
+            convert(args[0], args[1]);
+        } catch (IOException ex) {
+            System.out.println("Error: Lattice could not be converted: " + ex.getMessage());
+        }
+    }
+}
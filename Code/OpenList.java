@@ -0,0 +1,55 @@
+/**
+ * The open list (frontier priority queue) of a graph search in Lattice2D. Entries are integer handles ordered
+ * firstly by their f values, then their h values and finally their IDs.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public interface OpenList {
+
+    /**
+     * Queues a handle, or updates its key if it is already queued.
+     *
+     * @param handle A non-negative handle identifying the entry.
+     * @param f The f value of the entry.
+     * @param h The h value of the entry.
+     * @param id The ID of the entry, used to break ties.
+     */
+    public void push(int handle, double f, double h, long id);
+
+    /**
+     * Removes the minimum entry.
+     *
+     * @return The handle of the minimum entry, or -1 if the open list is empty.
+     */
+    public int pop();
+
+    /**
+     * Removes a handle from the open list if it is queued.
+     *
+     * @param handle The handle to remove.
+     */
+    public void remove(int handle);
+
+    /**
+     * @param handle The handle to look for.
+     * @return True if the handle is currently queued.
+     */
+    public boolean contains(int handle);
+
+    /**
+     * Removes all queued handles.
+     */
+    public void clear();
+
+    /**
+     * @return The number of queued handles.
+     */
+    public int size();
+
+    /**
+     * @return True if no handles are queued.
+     */
+    public boolean isEmpty();
+}
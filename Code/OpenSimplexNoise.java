@@ -17,6 +17,9 @@
  * This is mostly kept here for reference. In particular, the 4D code is very slow.
  */
  
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 public class OpenSimplexNoise {
 
 	private static final double STRETCH_CONSTANT_2D = -0.211324865405187;    // (1/Math.sqrt(2+1)-1)/2;
@@ -185,6 +188,146 @@ public class OpenSimplexNoise {
 		return value;
 	}
 	
+	// Bulk 2D OpenSimplex Noise over a grid of samples: out[j * w + i] = eval(x0 + i * dx, y0 + j * dy), bit for bit.
+	// Samples that fall in the same super-cell share its gradient lookups, and large grids are split into bands of rows
+	// that are evaluated in parallel on the common fork-join pool. On a single core this is roughly on par with calling
+	// eval for every sample; the gain comes from spreading the bands over several cores.
+	public void evalGrid(double x0, double y0, double dx, double dy, int w, int h, double[] out) {
+		checkGrid(w, h, 1, out);
+		evalBands((first, last) -> {
+			for (int j = first; j < last; j++) {
+				evalRow2(x0, y0 + j * dy, dx, w, out, j * w);
+			}
+		}, h, w);
+	}
+	
+	private void evalRow2(double x0, double y, double xStep, int w, double[] out, int offset) {
+		int cellX = 0, cellY = 0;
+		Grad2 g00 = null, g10 = null, g01 = null, g11 = null;
+		for (int i = 0; i < w; i++) {
+			double x = x0 + i * xStep;
+			
+			// Place input coordinates onto grid.
+			double stretchOffset = (x + y) * STRETCH_CONSTANT_2D;
+			double xs = x + stretchOffset;
+			double ys = y + stretchOffset;
+			
+			// Floor to get grid coordinates of rhombus (stretched square) super-cell origin.
+			int xsb = fastFloor(xs);
+			int ysb = fastFloor(ys);
+			
+			// Look up the gradients of the super-cell's corners, unless the previous sample was in the same super-cell.
+			if (g00 == null || xsb != cellX || ysb != cellY) {
+				cellX = xsb;
+				cellY = ysb;
+				int px0 = perm[xsb & PMASK];
+				int px1 = perm[(xsb + 1) & PMASK];
+				g00 = permGrad2[px0 ^ (ysb & PMASK)];
+				g10 = permGrad2[px1 ^ (ysb & PMASK)];
+				g01 = permGrad2[px0 ^ ((ysb + 1) & PMASK)];
+				g11 = permGrad2[px1 ^ ((ysb + 1) & PMASK)];
+			}
+			
+			// Compute grid coordinates relative to rhombus origin.
+			double xins = xs - xsb;
+			double yins = ys - ysb;
+			
+			// Sum those together to get a value that determines which region we're in.
+			double inSum = xins + yins;
+			
+			// Positions relative to origin point.
+			double squishOffsetIns = inSum * SQUISH_CONSTANT_2D;
+			double dx0 = xins + squishOffsetIns;
+			double dy0 = yins + squishOffsetIns;
+			
+			double dx_ext, dy_ext;
+			int xsv_ext, ysv_ext;
+			Grad2 g0;
+			
+			double value = 0;
+			
+			// Contribution (1,0)
+			double dx1 = dx0 - 1 - SQUISH_CONSTANT_2D;
+			double dy1 = dy0 - 0 - SQUISH_CONSTANT_2D;
+			double attn1 = 2 - dx1 * dx1 - dy1 * dy1;
+			if (attn1 > 0) {
+				attn1 *= attn1;
+				value += attn1 * attn1 * (g10.dx * dx1 + g10.dy * dy1);
+			}
+			
+			// Contribution (0,1)
+			double dx2 = dx0 - 0 - SQUISH_CONSTANT_2D;
+			double dy2 = dy0 - 1 - SQUISH_CONSTANT_2D;
+			double attn2 = 2 - dx2 * dx2 - dy2 * dy2;
+			if (attn2 > 0) {
+				attn2 *= attn2;
+				value += attn2 * attn2 * (g01.dx * dx2 + g01.dy * dy2);
+			}
+			
+			if (inSum <= 1) { // We're inside the triangle (2-Simplex) at (0,0)
+				double zins = 1 - inSum;
+				if (zins > xins || zins > yins) { // (0,0) is one of the closest two triangular vertices
+					if (xins > yins) {
+						xsv_ext = xsb + 1;
+						ysv_ext = ysb - 1;
+						dx_ext = dx0 - 1;
+						dy_ext = dy0 + 1;
+					} else {
+						xsv_ext = xsb - 1;
+						ysv_ext = ysb + 1;
+						dx_ext = dx0 + 1;
+						dy_ext = dy0 - 1;
+					}
+				} else { // (1,0) and (0,1) are the closest two vertices.
+					xsv_ext = xsb + 1;
+					ysv_ext = ysb + 1;
+					dx_ext = dx0 - 1 - 2 * SQUISH_CONSTANT_2D;
+					dy_ext = dy0 - 1 - 2 * SQUISH_CONSTANT_2D;
+				}
+				g0 = g00;
+			} else { // We're inside the triangle (2-Simplex) at (1,1)
+				double zins = 2 - inSum;
+				if (zins < xins || zins < yins) { // (0,0) is one of the closest two triangular vertices
+					if (xins > yins) {
+						xsv_ext = xsb + 2;
+						ysv_ext = ysb + 0;
+						dx_ext = dx0 - 2 - 2 * SQUISH_CONSTANT_2D;
+						dy_ext = dy0 + 0 - 2 * SQUISH_CONSTANT_2D;
+					} else {
+						xsv_ext = xsb + 0;
+						ysv_ext = ysb + 2;
+						dx_ext = dx0 + 0 - 2 * SQUISH_CONSTANT_2D;
+						dy_ext = dy0 - 2 - 2 * SQUISH_CONSTANT_2D;
+					}
+				} else { // (1,0) and (0,1) are the closest two vertices.
+					dx_ext = dx0;
+					dy_ext = dy0;
+					xsv_ext = xsb;
+					ysv_ext = ysb;
+				}
+				g0 = g11;
+				dx0 = dx0 - 1 - 2 * SQUISH_CONSTANT_2D;
+				dy0 = dy0 - 1 - 2 * SQUISH_CONSTANT_2D;
+			}
+			
+			// Contribution (0,0) or (1,1)
+			double attn0 = 2 - dx0 * dx0 - dy0 * dy0;
+			if (attn0 > 0) {
+				attn0 *= attn0;
+				value += attn0 * attn0 * (g0.dx * dx0 + g0.dy * dy0);
+			}
+			
+			// Extra Vertex
+			double attn_ext = 2 - dx_ext * dx_ext - dy_ext * dy_ext;
+			if (attn_ext > 0) {
+				attn_ext *= attn_ext;
+				value += attn_ext * attn_ext * extrapolate(xsv_ext, ysv_ext, dx_ext, dy_ext);
+			}
+			
+			out[offset + i] = value;
+		}
+	}
+	
 	// 3D OpenSimplex Noise.
 	public double eval(double x, double y, double z) {
 	
@@ -196,6 +339,29 @@ public class OpenSimplexNoise {
 		
 		return eval3_Base(xs, ys, zs);
 	}
+	
+	// Bulk 3D OpenSimplex Noise over a grid of samples:
+	// out[(k * h + j) * w + i] = eval(x0 + i * dx, y0 + j * dy, z0 + k * dz), bit for bit.
+	// Rows of samples are evaluated in parallel on the common fork-join pool, as for the 2D evalGrid.
+	public void evalGrid(double x0, double y0, double z0, double dx, double dy, double dz, int w, int h, int d, double[] out) {
+		checkGrid(w, h, d, out);
+		evalBands((first, last) -> {
+			for (int row = first; row < last; row++) {
+				int j = row % h;
+				int k = row / h;
+				double y = y0 + j * dy;
+				double z = z0 + k * dz;
+				int offset = row * w;
+				for (int i = 0; i < w; i++) {
+					double x = x0 + i * dx;
+					
+					// Place input coordinates on simplectic honeycomb.
+					double stretchOffset = (x + y + z) * STRETCH_CONSTANT_3D;
+					out[offset + i] = eval3_Base(x + stretchOffset, y + stretchOffset, z + stretchOffset);
+				}
+			}
+		}, h * d, w);
+	}
 
 	// Not as good as in SuperSimplex/OpenSimplex2S, since there are more visible differences between different slices.
 	// The Z coordinate should always be the "different" coordinate in your use case.
@@ -2130,6 +2296,54 @@ public class OpenSimplexNoise {
 		return grad.dx * dx + grad.dy * dy + grad.dz * dz + grad.dw * dw;
 	}
 	
+	// Rows of a grid with fewer samples than this are evaluated on the calling thread rather than split further.
+	private static final int GRID_BAND_SAMPLES = 1 << 14;
+	
+	// Evaluates a contiguous band of grid rows [first, last).
+	@FunctionalInterface
+	private interface GridBand {
+		void eval(int first, int last);
+	}
+	
+	private static void checkGrid(int w, int h, int d, double[] out) {
+		if (w < 0 || h < 0 || d < 0 || (long) w * h * d > out.length) {
+			throw new IllegalArgumentException("Grid of " + w + "x" + h + "x" + d + " samples does not fit in " + out.length + " values");
+		}
+	}
+	
+	private static void evalBands(GridBand band, int rows, int w) {
+		if ((long) rows * w <= GRID_BAND_SAMPLES) {
+			band.eval(0, rows);
+		} else {
+			ForkJoinPool.commonPool().invoke(new GridTask(band, 0, rows, Math.max(1, GRID_BAND_SAMPLES / Math.max(1, w))));
+		}
+	}
+	
+	// Splits a band of rows in half until it is small enough to evaluate directly.
+	private static final class GridTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final GridBand band;
+		private final int first, last, minRows;
+		
+		GridTask(GridBand band, int first, int last, int minRows) {
+			this.band = band;
+			this.first = first;
+			this.last = last;
+			this.minRows = minRows;
+		}
+		
+		@Override
+		protected void compute() {
+			if (last - first <= minRows) {
+				band.eval(first, last);
+			} else {
+				int middle = (first + last) >>> 1;
+				invokeAll(new GridTask(band, first, middle, minRows), new GridTask(band, middle, last, minRows));
+			}
+		}
+	}
+	
 	private static int fastFloor(double x) {
 		int xi = (int)x;
 		return x < xi ? xi - 1 : xi;
@@ -0,0 +1,162 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a PNG image a row at a time, so an image of any size can be written while only a single row is held in memory.
+ * The image is 8 bit RGB, every row is stored unfiltered, and the compressed rows are split into IDAT chunks of at most
+ * 64KB.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class PngWriter implements AutoCloseable {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final int CHUNK_BYTES = 1 << 16;
+
+    private final OutputStream out;
+    private final int width, height;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final DeflaterOutputStream pixels;
+    private final byte[] row;
+    private int rowsWritten = 0;
+
+    /**
+     * Compressed pixel data, written out as an IDAT chunk whenever CHUNK_BYTES have been buffered.
+     */
+    private final class ChunkStream extends OutputStream {
+        private final byte[] buffer = new byte[CHUNK_BYTES];
+        private int length = 0;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (length == buffer.length) {
+                flushChunk();
+            }
+            buffer[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int offset, int count) throws IOException {
+            int part;
+            while (count > 0) {
+                if (length == buffer.length) {
+                    flushChunk();
+                }
+                part = Math.min(count, buffer.length - length);
+                System.arraycopy(b, offset, buffer, length, part);
+                length += part;
+                offset += part;
+                count -= part;
+            }
+        }
+
+        public void flushChunk() throws IOException {
+            if (length > 0) {
+                writeChunk("IDAT", buffer, length);
+                length = 0;
+            }
+        }
+    }
+
+    private final ChunkStream chunks = new ChunkStream();
+
+    /**
+     * Starts a PNG image. The stream is closed when the image is closed.
+     *
+     * @param out The stream to write the image to.
+     * @param width The width of the image in pixels.
+     * @param height The height of the image in pixels.
+     * @throws IOException If the header could not be written.
+     */
+    public PngWriter(OutputStream out, int width, int height) throws IOException {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("A PNG image needs at least one pixel: " + width + "x" + height);
+        }
+        if ((long) width * 3 + 1 > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("PNG rows are limited to " + ((Integer.MAX_VALUE - 9) / 3) + " pixels: " + width);
+        }
+        this.out = out;
+        this.width = width;
+        this.height = height;
+        this.row = new byte[width * 3 + 1];     //Filter type 0 (None) followed by the RGB samples
+        this.pixels = new DeflaterOutputStream(chunks, deflater, CHUNK_BYTES);
+
+        out.write(SIGNATURE);
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8;      //Bit depth
+        header[9] = 2;      //Colour type RGB
+        writeChunk("IHDR", header, header.length);
+    }
+
+    /**
+     * Writes the next row of the image.
+     *
+     * @param rgb The pixels as 0xRRGGBB (any alpha bits are ignored).
+     * @param offset The index of the first pixel of the row.
+     * @throws IOException If the row could not be written.
+     */
+    public void writeRow(int[] rgb, int offset) throws IOException {
+        if (rowsWritten == height) {
+            throw new IllegalStateException("All " + height + " rows have already been written");
+        }
+        int color;
+        for (int x = 0, i = 1; x < width; x++) {
+            color = rgb[offset + x];
+            row[i++] = (byte) (color >>> 16);
+            row[i++] = (byte) (color >>> 8);
+            row[i++] = (byte) color;
+        }
+        pixels.write(row);
+        rowsWritten++;
+    }
+
+    /**
+     * Finishes the image and closes the stream.
+     *
+     * @throws IOException If the image could not be finished, or not every row was written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rowsWritten != height) {
+                throw new IOException("Only " + rowsWritten + " of " + height + " rows were written");
+            }
+            pixels.finish();
+            chunks.flushChunk();
+            writeChunk("IEND", new byte[0], 0);
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] word = new byte[4];
+        putInt(word, 0, length);
+        out.write(word);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        putInt(word, 0, (int) crc.getValue());
+        out.write(word);
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
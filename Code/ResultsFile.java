@@ -0,0 +1,456 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A compact binary file of search results, read back through a memory mapping so that files holding millions of results
+ * open without parsing them.
+ *
+ * The file is an 8 byte header (the magic number "L2DR" and the format version) followed by the results, one record per
+ * result. A record is its length in bytes followed by (all big-endian):
+ * the optimal path length, the total nodes explored and the total time taken;
+ * the start and end positions (a count and then [x, y] pairs);
+ * the path (the number of positions, -1 if there is no path, then the first position and one byte per step, (dx + 1) * 3 + dy + 1);
+ * the left depths and nodes explored, the right depths and nodes explored and the time taken per depth (a count and then the values);
+ * and the positions explored from the start and from the end, each as the number of positions, the bounding box
+ * (x, y, width, height) and a bitmap of the bounding box, row by row, every row starting on a fresh long.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class ResultsFile {
+
+    private static final int MAGIC = 0x4c324452;       //"L2DR"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final long WINDOW_BYTES = 1L << 30; //Bytes mapped at once (records never straddle two mappings)
+
+    private final ByteBuffer[] segments;
+    private final int[] segmentOf, offsetOf;           //Record -> mapping and offset of the record in it
+    private final int size;
+
+    private ResultsFile(ByteBuffer[] segments, int[] segmentOf, int[] offsetOf, int size) {
+        this.segments = segments;
+        this.segmentOf = segmentOf;
+        this.offsetOf = offsetOf;
+        this.size = size;
+    }
+
+    /**
+     * Creates (or truncates) a results file.
+     *
+     * @param fname The name of the results file.
+     * @return A writer that appends results to the file.
+     * @throws IOException If the file could not be created.
+     */
+    public static Writer create(String fname) throws IOException {
+        FileChannel out = FileChannel.open(Paths.get(fname), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            return new Writer(out);
+        } catch (IOException ex) {
+            out.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Maps a results file and finds its records. Only the record lengths are read, and the file can be closed as soon as it is mapped.
+     *
+     * @param fname The name of the results file.
+     * @return The results.
+     * @throws IOException If the file could not be mapped, or is not a results file.
+     */
+    public static ResultsFile open(String fname) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fname), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException(fname + " is not a results file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(fname + " has unsupported results version " + version);
+            }
+
+            long fileSize = channel.size();
+            ArrayList<ByteBuffer> segments = new ArrayList<ByteBuffer>();
+            int[] segmentOf = new int[16];
+            int[] offsetOf = new int[16];
+            int size = 0;
+            ByteBuffer window = null;
+            long windowStart = HEADER_BYTES, windowEnd = HEADER_BYTES;
+            int length;
+            for (long pos = HEADER_BYTES; pos < fileSize; pos += 4 + (long) length) {
+                if (fileSize - pos < 4) {
+                    throw new IOException(fname + " is truncated");
+                }
+                if (pos + 4 > windowEnd) {
+                    windowStart = pos;
+                    windowEnd = pos + Math.min(WINDOW_BYTES, fileSize - pos);
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+                    segments.add(window);
+                }
+                length = window.getInt((int) (pos - windowStart));
+                if (length < 0 || pos + 4 + length > fileSize) {
+                    throw new IOException(fname + " is truncated");
+                }
+                if (pos + 4 + length > windowEnd) {
+                    //Remap so that the whole record is in one mapping.
+                    windowStart = pos;
+                    windowEnd = pos + Math.min(Math.max(WINDOW_BYTES, 4 + (long) length), fileSize - pos);
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+                    segments.add(window);
+                }
+                if (size == segmentOf.length) {
+                    segmentOf = Arrays.copyOf(segmentOf, size << 1);
+                    offsetOf = Arrays.copyOf(offsetOf, size << 1);
+                }
+                segmentOf[size] = segments.size() - 1;
+                offsetOf[size] = (int) (pos - windowStart);
+                size++;
+            }
+            return new ResultsFile(segments.toArray(new ByteBuffer[0]), segmentOf, offsetOf, size);
+        }
+    }
+
+    /**
+     * @return The number of results in the file.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index The index of the result, in the order the results were written.
+     * @return A view of the result, read straight from the mapping.
+     */
+    public Record get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Result " + index + " of " + size);
+        }
+        return new Record(segments[segmentOf[index]], offsetOf[index]);
+    }
+
+    /**
+     * One result of a results file. The sections of the record are located when the view is created, and every value is
+     * read from the mapping when it is asked for.
+     */
+    public static final class Record {
+        private final ByteBuffer buffer;
+        private final int base;
+        private final int startAt, endAt, pathAt, leftDepthsAt, rightDepthsAt, timeAt, leftAt, rightAt;
+
+        private Record(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.base = offset + 4;
+            int pos = base + 24;
+            startAt = pos;
+            pos += 4 + 8 * buffer.getInt(pos);
+            endAt = pos;
+            pos += 4 + 8 * buffer.getInt(pos);
+            pathAt = pos;
+            int steps = buffer.getInt(pos);
+            pos += 4 + (steps > 0 ? 8 + steps - 1 : 0);
+            leftDepthsAt = pos;
+            pos += 4 + 16 * buffer.getInt(pos);
+            rightDepthsAt = pos;
+            pos += 4 + 16 * buffer.getInt(pos);
+            timeAt = pos;
+            pos += 4 + 8 * buffer.getInt(pos);
+            leftAt = pos;
+            rightAt = pos + 20 + 8 * ((buffer.getInt(pos + 12) + 63) >>> 6) * buffer.getInt(pos + 16);
+        }
+
+        public double pathLen() {
+            return buffer.getDouble(base);
+        }
+
+        public long totalExplore() {
+            return buffer.getLong(base + 8);
+        }
+
+        public long totalTime() {
+            return buffer.getLong(base + 16);
+        }
+
+        /**
+         * @return The start positions as [x, y].
+         */
+        public int[][] start() {
+            return positions(startAt);
+        }
+
+        /**
+         * @return The end positions as [x, y].
+         */
+        public int[][] end() {
+            return positions(endAt);
+        }
+
+        private int[][] positions(int at) {
+            int[][] positions = new int[buffer.getInt(at)][];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = new int[] {buffer.getInt(at + 4 + 8 * i), buffer.getInt(at + 8 + 8 * i)};
+            }
+            return positions;
+        }
+
+        /**
+         * @return The optimal path as [x, y] positions from a start position to an end position, null if non-existant.
+         */
+        public int[][] path() {
+            int count = buffer.getInt(pathAt);
+            if (count < 0) {
+                return null;
+            }
+            int[][] path = new int[count][];
+            int x = 0, y = 0, step;
+            for (int i = 0; i < count; i++) {
+                if (i == 0) {
+                    x = buffer.getInt(pathAt + 4);
+                    y = buffer.getInt(pathAt + 8);
+                } else {
+                    step = buffer.get(pathAt + 11 + i);
+                    x += step / 3 - 1;
+                    y += step % 3 - 1;
+                }
+                path[i] = new int[] {x, y};
+            }
+            return path;
+        }
+
+        public double[] leftDepths() {
+            return depths(leftDepthsAt);
+        }
+
+        public long[] leftExplored() {
+            return counts(leftDepthsAt);
+        }
+
+        public double[] rightDepths() {
+            return depths(rightDepthsAt);
+        }
+
+        public long[] rightExplored() {
+            return counts(rightDepthsAt);
+        }
+
+        /**
+         * @return The time taken (in milliseconds) for each depth search.
+         */
+        public long[] timeTaken() {
+            long[] times = new long[buffer.getInt(timeAt)];
+            for (int i = 0; i < times.length; i++) {
+                times[i] = buffer.getLong(timeAt + 4 + 8 * i);
+            }
+            return times;
+        }
+
+        private double[] depths(int at) {
+            double[] depths = new double[buffer.getInt(at)];
+            for (int i = 0; i < depths.length; i++) {
+                depths[i] = buffer.getDouble(at + 4 + 8 * i);
+            }
+            return depths;
+        }
+
+        private long[] counts(int at) {
+            long[] counts = new long[buffer.getInt(at)];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buffer.getLong(at + 4 + 8 * counts.length + 8 * i);
+            }
+            return counts;
+        }
+
+        /**
+         * @param left True for the positions explored from the start positions, False for those explored from the end positions.
+         * @return The number of explored positions.
+         */
+        public int exploredCount(boolean left) {
+            return buffer.getInt(left ? leftAt : rightAt);
+        }
+
+        /**
+         * @param left True for the positions explored from the start positions, False for those explored from the end positions.
+         * @param x The x coordinate.
+         * @param y The y coordinate.
+         * @return True if the position was explored.
+         */
+        public boolean isExplored(boolean left, int x, int y) {
+            int at = left ? leftAt : rightAt;
+            int bx = x - buffer.getInt(at + 4);
+            int by = y - buffer.getInt(at + 8);
+            int width = buffer.getInt(at + 12);
+            if (bx < 0 || bx >= width || by < 0 || by >= buffer.getInt(at + 16)) {
+                return false;
+            }
+            return (buffer.getLong(at + 20 + 8 * (by * ((width + 63) >>> 6) + (bx >>> 6))) & (1L << bx)) != 0;
+        }
+    }
+
+    /**
+     * Appends results to a results file.
+     */
+    public static final class Writer implements AutoCloseable {
+        private final FileChannel out;
+
+        private Writer(FileChannel out) {
+            this.out = out;
+        }
+
+        /**
+         * @param results The results of a search.
+         * @throws IOException If the results could not be written.
+         */
+        public void append(Lattice2D.SearchResults results) throws IOException {
+            long[] left = results.explored(true);
+            long[] right = results.explored(false);
+            long[] leftBox = box(left);
+            long[] rightBox = box(right);
+            int steps = results.path == null ? -1 : results.path.size();
+
+            long bytes = 24 + 4 + 8L * results.start.length + 4 + 8L * results.end.length + 4 + (steps > 0 ? 8 + steps - 1 : 0)
+                    + 4 + 16L * results.leftDepths.size() + 4 + 16L * results.rightDepths.size() + 4 + 8L * results.timeTaken.size()
+                    + bitmapBytes(leftBox) + bitmapBytes(rightBox);
+            if (bytes > Integer.MAX_VALUE - 8) {
+                throw new IOException("The results are too large for one record: " + bytes + " bytes");
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(4 + (int) bytes);
+            record.putInt((int) bytes);
+            record.putDouble(results.pathLen).putLong(results.totalExplore).putLong(results.totalTime);
+            putPositions(record, results.start);
+            putPositions(record, results.end);
+
+            record.putInt(steps);
+            if (steps > 0) {
+                int[] previous = null;
+                int dx, dy;
+                for (int[] pos : results.path) {
+                    if (previous == null) {
+                        record.putInt(pos[0]).putInt(pos[1]);
+                    } else {
+                        dx = pos[0] - previous[0];
+                        dy = pos[1] - previous[1];
+                        if (Math.abs(dx) > 1 || Math.abs(dy) > 1) {
+                            throw new IOException("The path jumps from [" + previous[0] + ", " + previous[1] + "] to [" + pos[0] + ", " + pos[1] + "]");
+                        }
+                        record.put((byte) ((dx + 1) * 3 + dy + 1));
+                    }
+                    previous = pos;
+                }
+            }
+
+            record.putInt(results.leftDepths.size());
+            for (double depth : results.leftDepths) {
+                record.putDouble(depth);
+            }
+            for (long explored : results.leftExplored) {
+                record.putLong(explored);
+            }
+            record.putInt(results.rightDepths.size());
+            for (double depth : results.rightDepths) {
+                record.putDouble(depth);
+            }
+            for (long explored : results.rightExplored) {
+                record.putLong(explored);
+            }
+            record.putInt(results.timeTaken.size());
+            for (long time : results.timeTaken) {
+                record.putLong(time);
+            }
+
+            putBitmap(record, left, leftBox);
+            putBitmap(record, right, rightBox);
+
+            record.flip();
+            while (record.hasRemaining()) {
+                out.write(record);
+            }
+        }
+
+        private static void putPositions(ByteBuffer record, int[][] positions) {
+            record.putInt(positions.length);
+            for (int[] pos : positions) {
+                record.putInt(pos[0]).putInt(pos[1]);
+            }
+        }
+
+        /**
+         * @return The bounding box [x, y, width, height] of the positions, all 0 if there are none.
+         */
+        private static long[] box(long[] positions) {
+            if (positions.length == 0) {
+                return new long[4];
+            }
+            long minX = Long.MAX_VALUE, maxX = Long.MIN_VALUE, minY = Long.MAX_VALUE, maxY = Long.MIN_VALUE;
+            for (long pos : positions) {
+                minX = Math.min(minX, (int) (pos >> 32));
+                maxX = Math.max(maxX, (int) (pos >> 32));
+                minY = Math.min(minY, (int) pos);
+                maxY = Math.max(maxY, (int) pos);
+            }
+            return new long[] {minX, minY, maxX - minX + 1, maxY - minY + 1};
+        }
+
+        private static long bitmapBytes(long[] box) {
+            return 20 + 8 * ((box[2] + 63) >>> 6) * box[3];
+        }
+
+        private static void putBitmap(ByteBuffer record, long[] positions, long[] box) {
+            record.putInt(positions.length).putInt((int) box[0]).putInt((int) box[1]).putInt((int) box[2]).putInt((int) box[3]);
+            int wordsPerRow = (int) ((box[2] + 63) >>> 6);
+            int start = record.position();
+            record.position(start + 8 * wordsPerRow * (int) box[3]);     //The buffer starts zeroed
+            int bx, by, at;
+            for (long pos : positions) {
+                bx = (int) (pos >> 32) - (int) box[0];
+                by = (int) pos - (int) box[1];
+                at = start + 8 * (by * wordsPerRow + (bx >>> 6));
+                record.putLong(at, record.getLong(at) | (1L << bx));
+            }
+        }
+
+        /**
+         * Closes the results file.
+         */
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Prints a summary of every result in a results file.
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Wrong Number of Arguments The format should be:\n[Results File Name]");
+            return;
+        }
+        try {
+            ResultsFile results = ResultsFile.open(args[0]);
+            Record record;
+            for (int i = 0; i < results.size(); i++) {
+                record = results.get(i);
+                System.out.println("Result " + i + ": Optimal Path Length: " + record.pathLen() + " || Total Nodes Explored: " + record.totalExplore()
+                        + " || Explored Positions: " + record.exploredCount(true) + " + " + record.exploredCount(false) + " || Time(ms): " + record.totalTime());
+            }
+        } catch (IOException ex) {
+            System.out.println("Error: Results could not be read: " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,353 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records every node expansion of a search: the frontier (left from the start positions, right from the end positions), the
+ * position, its g and h values and the size of the open list when it was expanded. Expansions are stored in preallocated
+ * primitive arrays used as a ring buffer, so recording never allocates. Without a spill file only the latest expansions are
+ * kept, and with one the buffer is written out whenever it fills up, so the file holds every expansion (see Replay).
+ *
+ * A trace is attached to a SearchWorkspace, and records the sequential searches (DFID, ASID, AS, BDAS, JPS and BDJPS) run
+ * with that workspace. A trace may only be used by one search at a time.
+ *
+ * The trace file format is an 8 byte header (the magic number "L2TR" and the format version) followed by 29 bytes per
+ * expansion: the frontier (0 left, 1 right), x, y, g, h and the open list size (big-endian).
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class SearchTrace implements AutoCloseable {
+
+    private static final int MAGIC = 0x4c325452;       //"L2TR"
+    private static final int VERSION = 1;
+    private static final int RECORD_BYTES = 29;
+
+    private final int mask;
+    private final boolean[] right;
+    private final int[] xs, ys, openSizes;
+    private final double[] gs, hs;
+    private long recorded = 0;                          //Expansions recorded since the trace was created or cleared
+    private long spilled = 0;                           //Expansions written to the spill file
+
+    private final FileChannel spill;                    //null if only the latest expansions are kept
+    private final ByteBuffer spillBuffer;
+
+    /**
+     * Initializes a trace that keeps the latest expansions in memory.
+     *
+     * @param capacity The number of expansions kept, rounded up to a power of two.
+     */
+    public SearchTrace(int capacity) {
+        this(capacity, (FileChannel) null);
+    }
+
+    /**
+     * Initializes a trace that writes every expansion to a trace file, buffering capacity expansions at a time.
+     *
+     * @param capacity The number of expansions buffered, rounded up to a power of two.
+     * @param fname The name of the trace file to write (see Replay).
+     * @throws IOException If the trace file could not be created.
+     */
+    public SearchTrace(int capacity, String fname) throws IOException {
+        this(capacity, FileChannel.open(Paths.get(fname), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    private SearchTrace(int capacity, FileChannel spill) {
+        if (capacity < 1 || capacity > (1 << 26)) {
+            throw new IllegalArgumentException("A trace holds from 1 to 2^26 expansions: " + capacity);
+        }
+        if (Integer.bitCount(capacity) != 1) {
+            capacity = Integer.highestOneBit(capacity) << 1;
+        }
+        this.mask = capacity - 1;
+        this.right = new boolean[capacity];
+        this.xs = new int[capacity];
+        this.ys = new int[capacity];
+        this.openSizes = new int[capacity];
+        this.gs = new double[capacity];
+        this.hs = new double[capacity];
+        this.spill = spill;
+        this.spillBuffer = spill == null ? null : ByteBuffer.allocate(Math.min(capacity, 1 << 12) * RECORD_BYTES);
+        if (spill != null) {
+            spillBuffer.putInt(MAGIC).putInt(VERSION);
+        }
+    }
+
+    /**
+     * Records the expansion of a node.
+     *
+     * @param left True if the node is in the left (forward) frontier, False if it is in the right (backward) frontier.
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param g The travelled path length to get to the position.
+     * @param h The hueristic value of the node.
+     * @param openSize The number of nodes in the open list of the frontier.
+     * @throws UncheckedIOException If the buffer was full and could not be written to the trace file.
+     */
+    public void record(boolean left, int x, int y, double g, double h, int openSize) {
+        if (spill != null && recorded - spilled > mask) {
+            flush();
+        }
+        int i = (int) recorded & mask;
+        right[i] = !left;
+        xs[i] = x;
+        ys[i] = y;
+        gs[i] = g;
+        hs[i] = h;
+        openSizes[i] = openSize;
+        recorded++;
+    }
+
+    /**
+     * Writes the buffered expansions to the trace file (if there is one).
+     *
+     * @throws UncheckedIOException If the expansions could not be written.
+     */
+    public void flush() {
+        if (spill == null) {
+            return;
+        }
+        try {
+            int i;
+            for (; spilled < recorded; spilled++) {
+                if (spillBuffer.remaining() < RECORD_BYTES) {
+                    writeSpill();
+                }
+                i = (int) spilled & mask;
+                spillBuffer.put((byte) (right[i] ? 1 : 0)).putInt(xs[i]).putInt(ys[i]).putDouble(gs[i]).putDouble(hs[i]).putInt(openSizes[i]);
+            }
+            writeSpill();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("The trace could not be written", ex);
+        }
+    }
+
+    private void writeSpill() throws IOException {
+        spillBuffer.flip();
+        while (spillBuffer.hasRemaining()) {
+            spill.write(spillBuffer);
+        }
+        spillBuffer.clear();
+    }
+
+    /**
+     * Forgets the expansions held in memory, writing them to the trace file first (if there is one).
+     */
+    public void clear() {
+        flush();
+        recorded = 0;
+        spilled = 0;
+    }
+
+    /**
+     * @return The number of expansions recorded since the trace was created or cleared.
+     */
+    public long recorded() {
+        return recorded;
+    }
+
+    /**
+     * @return The number of expansions held in memory (the latest ones, or those not yet written to the trace file).
+     */
+    public int size() {
+        return (int) (spill != null ? recorded - spilled : Math.min(recorded, mask + 1));
+    }
+
+    private int slot(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Expansion " + index + " of " + size());
+        }
+        return (int) (recorded - size() + index) & mask;
+    }
+
+    /**
+     * @param index The index of an expansion held in memory, 0 being the oldest.
+     * @return True if the node was in the left (forward) frontier.
+     */
+    public boolean isLeft(int index) {
+        return !right[slot(index)];
+    }
+
+    public int x(int index) {
+        return xs[slot(index)];
+    }
+
+    public int y(int index) {
+        return ys[slot(index)];
+    }
+
+    public double g(int index) {
+        return gs[slot(index)];
+    }
+
+    public double h(int index) {
+        return hs[slot(index)];
+    }
+
+    public int openSize(int index) {
+        return openSizes[slot(index)];
+    }
+
+    /**
+     * Writes the buffered expansions to the trace file and closes it.
+     */
+    @Override
+    public void close() throws IOException {
+        if (spill != null) {
+            flush();
+            spill.close();
+        }
+    }
+
+    /**
+     * Steps through the expansions of a trace file, in the order they were recorded.
+     */
+    public static final class Replay implements AutoCloseable {
+        private final DataInputStream in;
+        private long step = -1;
+        private boolean left;
+        private int x, y, openSize;
+        private double g, h;
+
+        /**
+         * @param fname The name of the trace file.
+         * @throws IOException If the file could not be opened, or is not a trace file.
+         */
+        public Replay(String fname) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(fname), 1 << 16));
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException(fname + " is not a trace file");
+                }
+                int version = in.readInt();
+                if (version != VERSION) {
+                    throw new IOException(fname + " has unsupported trace version " + version);
+                }
+            } catch (IOException ex) {
+                in.close();
+                throw ex;
+            }
+        }
+
+        /**
+         * Moves to the next expansion.
+         *
+         * @return False if there are no more expansions.
+         * @throws IOException If the trace file could not be read.
+         */
+        public boolean next() throws IOException {
+            try {
+                left = in.readByte() == 0;
+                x = in.readInt();
+                y = in.readInt();
+                g = in.readDouble();
+                h = in.readDouble();
+                openSize = in.readInt();
+            } catch (EOFException ex) {
+                return false;
+            }
+            step++;
+            return true;
+        }
+
+        /**
+         * @return The index of the current expansion, 0 being the first.
+         */
+        public long step() {
+            return step;
+        }
+
+        public boolean isLeft() {
+            return left;
+        }
+
+        public int x() {
+            return x;
+        }
+
+        public int y() {
+            return y;
+        }
+
+        public double g() {
+            return g;
+        }
+
+        public double h() {
+            return h;
+        }
+
+        public int openSize() {
+            return openSize;
+        }
+
+        @Override
+        public String toString() {
+            return "Step " + step + ": " + (left ? "Left" : "Right") + " [" + x + ", " + y + "] || g: " + g + " || h: " + h + " || f: " + (g + h) + " || Open: " + openSize;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Replays a trace file. With a step count the steps are printed straight away, otherwise the trace is stepped through
+     * interactively: Enter shows the next step, a number shows that many steps and q quits.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 3) {
+            System.out.println("Wrong Number of Arguments The format should be:\n[Trace File Name] [First Step (optional)] [Steps (optional)]");
+            return;
+        }
+        try (Replay replay = new Replay(args[0])) {
+            long first = args.length > 1 ? Long.parseLong(args[1]) : 0;
+            boolean more = true;
+            while (more && replay.step() + 1 < first) {
+                more = replay.next();
+            }
+
+            if (args.length == 3) {
+                for (long steps = Long.parseLong(args[2]); more && steps > 0; steps--) {
+                    if (more = replay.next()) {
+                        System.out.println(replay);
+                    }
+                }
+                return;
+            }
+
+            BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
+            String line;
+            long steps;
+            while (more) {
+                line = input.readLine();
+                if (line == null || line.trim().equals("q")) {
+                    break;
+                }
+                steps = line.trim().isEmpty() ? 1 : Long.parseLong(line.trim());
+                for (; more && steps > 0; steps--) {
+                    if (more = replay.next()) {
+                        System.out.println(replay);
+                    }
+                }
+            }
+            if (!more) {
+                System.out.println("End of Trace.");
+            }
+        } catch (IOException | NumberFormatException ex) {
+            System.out.println("Error: Trace could not be replayed: " + ex.getMessage());
+        }
+    }
+}
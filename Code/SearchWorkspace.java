@@ -0,0 +1,206 @@
+import java.util.Arrays;
+
+/**
+ * Reusable search memory for Lattice2D: the closed sets (node pools) and open lists of both search frontiers, the stack
+ * of the iterative deepening searches, the published g tables of the parallel bi-directional search and the partitions
+ * of the hash distributed search. A workspace keeps all of its arrays between searches, and the previous search is
+ * forgotten by advancing the generation counters of the closed sets and g tables rather than by clearing them, so once a workspace is
+ * warm, back to back searches with it do not allocate any search state.
+ *
+ * A workspace may only be used by one search at a time. The results of a search do not refer to the workspace, so they
+ * stay valid after the workspace is reused.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class SearchWorkspace {
+
+    private int width = -1, height = -1;    //Bounds the closed sets index densely (-1 for hashed closed sets)
+    private ClosedSet leftClosed, rightClosed;
+    private IndexedHeap leftHeap, rightHeap;
+    private BucketQueue leftBuckets, rightBuckets;
+    private SharedGTable leftG, rightG;     //Only allocated once a parallel bi-directional search uses the workspace
+    private ClosedSet[] partitionClosed = new ClosedSet[0];         //Per worker of a hash distributed search, allocated on first use
+    private IndexedHeap[] partitionHeaps = new IndexedHeap[0];
+    private BucketQueue[] partitionBuckets = new BucketQueue[0];
+    private long[][] partitionParents = new long[0][];
+    private int[] stack = new int[64];
+    private SearchTrace trace;              //Records the expansions of the searches, null if they are not traced
+
+    /**
+     * Prepares the workspace for a new search, emptying its closed sets, open lists, g tables and partitions. The closed sets and g
+     * tables are only reallocated if the bounds differ from those of the previous search.
+     *
+     * @param width The width of a lattice whose closed sets are indexed densely, or -1 for hashed closed sets.
+     * @param height The height of a lattice whose closed sets are indexed densely, or -1 for hashed closed sets.
+     */
+    void begin(int width, int height) {
+        if (leftClosed == null || width != this.width || height != this.height) {
+            this.width = width;
+            this.height = height;
+            leftClosed = width >= 0 ? new ClosedSet(width, height) : new ClosedSet();
+            rightClosed = width >= 0 ? new ClosedSet(width, height) : new ClosedSet();
+            leftG = null;
+            rightG = null;
+        } else {
+            leftClosed.clear();
+            rightClosed.clear();
+            if (leftG != null) {
+                leftG.clear();
+                rightG.clear();
+            }
+        }
+        if (leftHeap != null) {
+            leftHeap.clear();
+            rightHeap.clear();
+        }
+        if (leftBuckets != null) {
+            leftBuckets.clear();
+            rightBuckets.clear();
+        }
+        for (int i = 0; i < partitionClosed.length; i++) {
+            if (partitionClosed[i] != null) {
+                partitionClosed[i].clear();
+            }
+            if (partitionHeaps[i] != null) {
+                partitionHeaps[i].clear();
+            }
+            if (partitionBuckets[i] != null) {
+                partitionBuckets[i].clear();
+            }
+        }
+    }
+
+    /**
+     * Attaches a trace that records every node expansion of the sequential searches run with this workspace (see SearchTrace).
+     *
+     * @param trace The trace, or null to stop tracing.
+     */
+    public void setTrace(SearchTrace trace) {
+        this.trace = trace;
+    }
+
+    SearchTrace trace() {
+        return trace;
+    }
+
+    ClosedSet leftClosed() {
+        return leftClosed;
+    }
+
+    ClosedSet rightClosed() {
+        return rightClosed;
+    }
+
+    /**
+     * @return The published g values of the forward (left) frontier.
+     */
+    SharedGTable leftG() {
+        if (leftG == null) {
+            leftG = width >= 0 ? new SharedGTable(width, height) : new SharedGTable();
+            rightG = width >= 0 ? new SharedGTable(width, height) : new SharedGTable();
+        }
+        return leftG;
+    }
+
+    /**
+     * @return The published g values of the backward (right) frontier.
+     */
+    SharedGTable rightG() {
+        leftG();
+        return rightG;
+    }
+
+    /**
+     * @param buckets True for a bucket queue, False for a heap.
+     * @return The open list of the forward (left) frontier.
+     */
+    OpenList leftOpen(boolean buckets) {
+        if (buckets) {
+            return leftBuckets == null ? (leftBuckets = new BucketQueue()) : leftBuckets;
+        }
+        return leftHeap == null ? (leftHeap = new IndexedHeap()) : leftHeap;
+    }
+
+    /**
+     * @param buckets True for a bucket queue, False for a heap.
+     * @return The open list of the backward (right) frontier.
+     */
+    OpenList rightOpen(boolean buckets) {
+        if (buckets) {
+            return rightBuckets == null ? (rightBuckets = new BucketQueue()) : rightBuckets;
+        }
+        return rightHeap == null ? (rightHeap = new IndexedHeap()) : rightHeap;
+    }
+
+    /**
+     * @param worker The index of a worker of a hash distributed search.
+     * @return The (hashed) closed set of the worker's partition.
+     */
+    ClosedSet partitionClosed(int worker) {
+        growPartitions(worker + 1);
+        return partitionClosed[worker] == null ? (partitionClosed[worker] = new ClosedSet()) : partitionClosed[worker];
+    }
+
+    /**
+     * @param worker The index of a worker of a hash distributed search.
+     * @param buckets True for a bucket queue, False for a heap.
+     * @return The open list of the worker's partition.
+     */
+    OpenList partitionOpen(int worker, boolean buckets) {
+        growPartitions(worker + 1);
+        if (buckets) {
+            return partitionBuckets[worker] == null ? (partitionBuckets[worker] = new BucketQueue()) : partitionBuckets[worker];
+        }
+        return partitionHeaps[worker] == null ? (partitionHeaps[worker] = new IndexedHeap()) : partitionHeaps[worker];
+    }
+
+    /**
+     * @param worker The index of a worker of a hash distributed search.
+     * @return The parent positions of the worker's partition (handle -> Lattice2D.getLongPos), which the search may grow.
+     */
+    long[] partitionParents(int worker) {
+        growPartitions(worker + 1);
+        return partitionParents[worker] == null ? (partitionParents[worker] = new long[64]) : partitionParents[worker];
+    }
+
+    /**
+     * Keeps the parent positions of a worker's partition after the search has grown them.
+     *
+     * @param worker The index of a worker of a hash distributed search.
+     * @param parents The parent positions.
+     */
+    void keepPartitionParents(int worker, long[] parents) {
+        partitionParents[worker] = parents;
+    }
+
+    /**
+     * Makes room for the partitions of a given number of workers.
+     */
+    private void growPartitions(int workers) {
+        if (workers > partitionClosed.length) {
+            partitionClosed = Arrays.copyOf(partitionClosed, workers);
+            partitionHeaps = Arrays.copyOf(partitionHeaps, workers);
+            partitionBuckets = Arrays.copyOf(partitionBuckets, workers);
+            partitionParents = Arrays.copyOf(partitionParents, workers);
+        }
+    }
+
+    /**
+     * @return The stack of the iterative deepening searches.
+     */
+    int[] stack() {
+        return stack;
+    }
+
+    /**
+     * Doubles the capacity of the stack, keeping its contents.
+     *
+     * @return The grown stack.
+     */
+    int[] growStack() {
+        stack = Arrays.copyOf(stack, stack.length << 1);
+        return stack;
+    }
+}
@@ -0,0 +1,140 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The best known g value of every position reached by one search frontier, published so that a frontier searched on
+ * another thread can read it. Only the owning frontier's thread writes to the table. Writes and reads are volatile, so if two
+ * threads each write to their own table and then read the other's, at least one of them sees the other's write.
+ *
+ * Positions are stored in a flat double array (y * width + x) when the lattice has known bounds, and in a concurrent hash map otherwise.
+ * Like ClosedSet, the flat array is split into pages that are only allocated once a position in them is written, so a table costs
+ * memory in proportion to the area searched rather than the whole lattice, and every entry is stamped with the generation it was
+ * written in, so a table is kept in a SearchWorkspace and emptied for the next search in constant time.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class SharedGTable {
+
+    private static final VarHandle CELL = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final VarHandle STAMP = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle CELL_PAGE = MethodHandles.arrayElementVarHandle(double[][].class);
+    private static final VarHandle STAMP_PAGE = MethodHandles.arrayElementVarHandle(int[][].class);
+    private static final int PAGE_SHIFT = 12;           //4096 positions (48KB) per page of the flat array
+    private static final int PAGE_MASK = (1 << PAGE_SHIFT) - 1;
+
+    private final int width, height;
+    private final double[][] cells;                     //y * width + x -> g (paged, null until used), null for unbounded lattices
+    private final int[][] stamps;                       //y * width + x -> generation the g value was written in (paged like cells)
+    private int generation = 1;                         //Entries of cells from any other generation are unreached (0 is never current)
+    private final ConcurrentHashMap<Long, Double> cellMap;   //Lattice2D.getLongPos -> g, null for bounded lattices
+
+    /**
+     * Initializes a table for a bounded lattice, where every position satisfies 0 <= x < width and 0 <= y < height.
+     *
+     * @param width The width of the lattice.
+     * @param height The height of the lattice.
+     */
+    public SharedGTable(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int pageCount = (int) (((long) width * height + PAGE_MASK) >>> PAGE_SHIFT);
+        this.cells = new double[pageCount][];
+        this.stamps = new int[pageCount][];
+        this.cellMap = null;
+    }
+
+    /**
+     * Initializes a table for an unbounded lattice.
+     */
+    public SharedGTable() {
+        this.width = -1;
+        this.height = -1;
+        this.cells = null;
+        this.stamps = null;
+        this.cellMap = new ConcurrentHashMap<Long, Double>();
+    }
+
+    /**
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The published g value of the position, or Double.POSITIVE_INFINITY if it has not been reached.
+     */
+    public double get(int x, int y) {
+        if (cells != null) {
+            if (x < 0 || x >= width || y < 0 || y >= height) {
+                return Double.POSITIVE_INFINITY;
+            }
+            int cell = y * width + x;
+            //A stamp page is only published after its g page, so a reader that finds the current stamp also finds the g page.
+            int[] stampPage = (int[]) STAMP_PAGE.getVolatile(stamps, cell >>> PAGE_SHIFT);
+            if (stampPage == null || (int) STAMP.getVolatile(stampPage, cell & PAGE_MASK) != generation) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return (double) CELL.getVolatile((double[]) CELL_PAGE.getVolatile(cells, cell >>> PAGE_SHIFT), cell & PAGE_MASK);
+        }
+        Double g = cellMap.get((((long) x) << 32) | (y & 0xffffffffL));
+        return g == null ? Double.POSITIVE_INFINITY : g;
+    }
+
+    /**
+     * Publishes a g value for a position. May only be called by the thread that owns the table.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param g The travelled path length to get to the position.
+     */
+    public void put(int x, int y, double g) {
+        if (cells != null) {
+            int cell = y * width + x;
+            int page = cell >>> PAGE_SHIFT;
+            int[] stampPage = stamps[page];
+            if (stampPage == null) {
+                CELL_PAGE.setVolatile(cells, page, new double[PAGE_MASK + 1]);
+                stampPage = new int[PAGE_MASK + 1];
+                STAMP_PAGE.setVolatile(stamps, page, stampPage);
+            }
+            //The g value is written before the stamp, so a reader that sees the current stamp also sees the g value.
+            CELL.setVolatile(cells[page], cell & PAGE_MASK, g);
+            STAMP.setVolatile(stampPage, cell & PAGE_MASK, generation);
+        } else {
+            cellMap.put((((long) x) << 32) | (y & 0xffffffffL), g);
+        }
+    }
+
+    /**
+     * @return The number of pages of the flat array that have been allocated (0 for unbounded lattices).
+     */
+    public int residentPages() {
+        int resident = 0;
+        if (stamps != null) {
+            for (int[] stampPage : stamps) {
+                if (stampPage != null) {
+                    resident++;
+                }
+            }
+        }
+        return resident;
+    }
+
+    /**
+     * Empties the table in constant time (by starting a new generation). May only be called while no search uses the table.
+     */
+    public void clear() {
+        if (cells != null) {
+            if (++generation == Integer.MAX_VALUE) {
+                for (int[] stampPage : stamps) {
+                    if (stampPage != null) {
+                        Arrays.fill(stampPage, 0);
+                    }
+                }
+                generation = 1;
+            }
+        } else {
+            cellMap.clear();
+        }
+    }
+}
@@ -1,145 +1,164 @@
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 //Merely used to generate small test cases to check if algorithms work correctly.
 public class TestSuite {
-    public static void main(String[] args) {
-        int[][] start = {{31, 44}};
-        int[][] end = {{44, 11}};
-        boolean[][] board = new boolean[1200][1200];
 
-        OpenSimplexNoise alpha = new OpenSimplexNoise(99l);
-        OpenSimplexNoise beta = new OpenSimplexNoise(420l);
+    private static final OpenSimplexNoise alpha = new OpenSimplexNoise(99l);
+    private static final OpenSimplexNoise beta = new OpenSimplexNoise(420l);
 
-        
-        Function<int[], Boolean> easyNoise = (pos) -> {
-            if (pos[0] < 0 || pos[0] > 100 || pos[1] < 0 || pos[1] > 100) {
-                return true;
-            }
+    public static final Function<int[], Boolean> easyNoise = (pos) -> {
+        if (pos[0] < 0 || pos[0] > 100 || pos[1] < 0 || pos[1] > 100) {
+            return true;
+        }
 
-            if (Math.abs(alpha.eval(pos[0], pos[1])) < 0.45) {
-                return false;
-            }
+        if (Math.abs(alpha.eval(pos[0], pos[1])) < 0.45) {
+            return false;
+        }
 
+        return true;
+    };
+
+    public static final Function<int[], Boolean> testNoise1 = (pos) -> {
+        if (pos[0] < 0 || pos[0] > 10 || pos[1] < 0 || pos[1] > 10) {
             return true;
-        };
+        }
 
-        Function<int[], Boolean> testNoise1 = (pos) -> {
-            if (pos[0] < 0 || pos[0] > 10 || pos[1] < 0 || pos[1] > 10) {
-                return true;
-            }
+        if (Math.abs(alpha.eval(pos[0], pos[1])) < 0.6) {
+            return false;
+        }
 
-            if (Math.abs(alpha.eval(pos[0], pos[1])) < 0.6) {
-                return false;
-            }
+        return true;
+    };
 
-            return true;
-        };
+    
 
-        
+    public static final Function<int[], Boolean> testNoise2 = (pos) -> {
+        if (pos[0] < 0 || pos[0] > 10 || pos[1] < 0 || pos[1] > 10) {
+            return true;
+        }
 
-        Function<int[], Boolean> testNoise2 = (pos) -> {
-            if (pos[0] < 0 || pos[0] > 10 || pos[1] < 0 || pos[1] > 10) {
-                return true;
-            }
+        if (beta.eval(pos[0] + 30, pos[1]) < 0.2) {
+            return false;
+        }
 
-            if (beta.eval(pos[0] + 30, pos[1]) < 0.2) {
-                return false;
-            }
+        return true;
+    };
 
+    public static final Function<int[], Boolean> nookTest = (pos) -> {
+        if (pos[0] < 0 || pos[0] > 50 || pos[1] < 0 || pos[1] > 50) {
             return true;
-        };
+        }
 
-        Function<int[], Boolean> nookTest = (pos) -> {
-            if (pos[0] < 0 || pos[0] > 50 || pos[1] < 0 || pos[1] > 50) {
-                return true;
-            }
+        if (pos[0] == 25) {
+            return pos[1] < 42;
+        }
 
-            if (pos[0] == 25) {
-                return pos[1] < 42;
-            }
+        if (pos[0] == 42) {
+            return pos[1] > 15;
+        } 
 
-            if (pos[0] == 42) {
-                return pos[1] > 15;
-            } 
-
-            if (pos[1] == 22) {
-                if (10 < pos[0] && pos[0] < 15) {
-                    return true;
-                }
-            } 
-
-            if (pos[1] == 7) {
-                if (10 < pos[0] && pos[0] < 25) {
-                    return true;
-                }
-            } 
-            
-            if (Math.abs(alpha.eval(pos[0] / 5.0 + 100, pos[1] / 5.0)) < 0.4) {
-                return false;
+        if (pos[1] == 22) {
+            if (10 < pos[0] && pos[0] < 15) {
+                return true;
             }
+        } 
 
-            return true;
-        };
-
-        Function<int[], Boolean> doubleSlit = (pos) -> {
-           if (pos[1] == 7) {
-               if (pos[0] != 1) {
-                   return true;
-               }
-           }
+        if (pos[1] == 7) {
+            if (10 < pos[0] && pos[0] < 25) {
+                return true;
+            }
+        } 
+        
+        if (Math.abs(alpha.eval(pos[0] / 5.0 + 100, pos[1] / 5.0)) < 0.4) {
+            return false;
+        }
 
-           if (pos[1] == 4) {
-               if (pos[0] != 9) {
-                   return true;
-               }
-           }
+        return true;
+    };
 
-           if (pos[0] < 0 || pos[0] > 10) {
+    public static final Function<int[], Boolean> doubleSlit = (pos) -> {
+       if (pos[1] == 7) {
+           if (pos[0] != 1) {
                return true;
            }
+       }
 
-           if (pos[1] < 0 || pos[1] > 10) {
+       if (pos[1] == 4) {
+           if (pos[0] != 9) {
                return true;
            }
+       }
 
-            return false;
-        };
+       if (pos[0] < 0 || pos[0] > 10) {
+           return true;
+       }
 
-        Function<int[], Boolean> easyEmpty = (pos) -> {
-            if (pos[0] < 0 || pos[0] > 10) {
-                return true;
-            }
+       if (pos[1] < 0 || pos[1] > 10) {
+           return true;
+       }
+
+        return false;
+    };
+
+    public static final Function<int[], Boolean> easyEmpty = (pos) -> {
+        if (pos[0] < 0 || pos[0] > 10) {
+            return true;
+        }
  
-            if (pos[1] < 0 || pos[1] > 10) {
-                return true;
-            }
+        if (pos[1] < 0 || pos[1] > 10) {
+            return true;
+        }
  
-             return false;
-        };
+         return false;
+    };
 
-        Function<int[], Boolean> mediumEmpty = (pos) -> {
-        if (pos[0] < 0 || pos[0] > 50) {
+    public static final Function<int[], Boolean> mediumEmpty = (pos) -> {
+    if (pos[0] < 0 || pos[0] > 50) {
+        return true;
+    }
+
+    if (pos[1] < 0 || pos[1] > 50) {
+        return true;
+    }
+
+        return false;
+    };
+
+    public static final Function<int[], Boolean> hardEmpty = (pos) -> {
+        if (pos[0] < 0 || pos[0] > 500) {
             return true;
         }
 
-        if (pos[1] < 0 || pos[1] > 50) {
+        if (pos[1] < 0 || pos[1] > 500) {
             return true;
         }
 
             return false;
-        };
+    };
 
-        Function<int[], Boolean> hardEmpty = (pos) -> {
-            if (pos[0] < 0 || pos[0] > 500) {
-                return true;
-            }
+    //Start and end points of the large noise board.
+    public static final int[][] noiseBoardStart = {{31, 44}};
+    public static final int[][] noiseBoardEnd = {{44, 11}};
 
-            if (pos[1] < 0 || pos[1] > 500) {
-                return true;
+    /**
+     * @return A 1200x1200 board with the same noise as easyNoise. True is occupied.
+     */
+    public static boolean[][] noiseBoard() {
+        boolean[][] board = new boolean[1200][1200];
+        double[] noise = new double[1200 * 1200];
+        alpha.evalGrid(0, 0, 1, 1, 1200, 1200, noise);
+        for (int y = 0; y < board.length; y++) {
+            for (int x = 0; x < board[y].length; x++) {
+                board[y][x] = Math.abs(noise[y * 1200 + x]) >= 0.45;
             }
+        }
+        return board;
+    }
 
-                return false;
-        };
+    public static void main(String[] args) {
+        int[][] start = new int[1][2];
+        int[][] end = new int[1][2];
 
         start[0][0] = 0;
         start[0][1] = 0;
@@ -216,6 +235,7 @@ public class TestSuite {
  
         results = test.solve(Lattice2D.hMH, null, Lattice2D.SEARCH_TYPE_AS);
         results.genFolder("Output/AS_MH_NOOK");
+        double nookPathLen = results.pathLen;
 
         results = test.solve(Lattice2D.hMHNook, Lattice2D.hMHNook, Lattice2D.SEARCH_TYPE_BDAS);
         results.genFolder("Output/BDAS_MHNook_NOOK");
@@ -223,7 +243,38 @@ public class TestSuite {
         results = test.solve(Lattice2D.hMHNook, null, Lattice2D.SEARCH_TYPE_AS);
         results.genFolder("Output/AS_MHNook_NOOK");
 
-        
+        //Parallel Parent Test (every thread of a parallel search must show a legacy hueristic the parent of the position it estimates)
+        AtomicInteger wrongParents = new AtomicInteger();
+        Lattice2D.Function5<Function<int[], Boolean>, int[], Lattice2D.Node, int[][], int[][], Double> hParentMH = (probe, pos, parent, from, to) -> {
+            if (parent != null && Math.abs(parent.pos[0] - pos[0]) + Math.abs(parent.pos[1] - pos[1]) != 1) {
+                wrongParents.incrementAndGet();
+            }
+            double min = Double.POSITIVE_INFINITY;
+            for (int[] goal : to) {
+                min = Math.min(min, Math.abs(pos[0] - goal[0]) + Math.abs(pos[1] - goal[1]));
+            }
+            return min;
+        };
+
+        results = test.solve(hParentMH, hParentMH, Lattice2D.SEARCH_TYPE_PBDAS);
+        System.out.println("Parallel Parent Test (PBDAS): " + (wrongParents.get() == 0 && results.pathLen == nookPathLen ? "Passed" : "Failed")
+            + " || Wrong Parents: " + wrongParents.get() + " || Path Length: " + results.pathLen + "\n");
+
+        //Frozen Lattice Test (a frozen lattice must find a path as short as the lattice it was frozen from)
+        Lattice2D frozen = new Lattice2D(nookTest, start, end);
+        frozen.freeze(51, 51);
+        results = frozen.solve(Lattice2D.hMH, null, Lattice2D.SEARCH_TYPE_AS);
+        System.out.println("Frozen Lattice Test (AS): " + (results.pathLen == nookPathLen ? "Passed" : "Failed")
+            + " || Path Length: " + results.pathLen + "\n");
+
+        //Sparse Parallel Test (a parallel search on a large bounded lattice must only allocate the g table pages it reaches)
+        int[][] sparseEnd = {{10, 10}};
+        Lattice2D sparse = new Lattice2D(new BitGrid(2048, 2048), start, sparseEnd);
+        SearchWorkspace sparseWorkspace = new SearchWorkspace();
+        results = sparse.solve(Lattice2D.hMH, Lattice2D.hMH, Lattice2D.SEARCH_TYPE_PBDAS, sparseWorkspace);
+        int gPages = sparseWorkspace.leftG().residentPages() + sparseWorkspace.rightG().residentPages();
+        System.out.println("Sparse Parallel Test (PBDAS): " + (results.pathLen == 20 && gPages <= 16 ? "Passed" : "Failed")
+            + " || Path Length: " + results.pathLen + " || G Table Pages: " + gPages + "\n");
     }
 }
 
@@ -0,0 +1,200 @@
+/**
+ * A bounded cache of square lattice tiles, each packed into a long array. A tile is loaded the first time it is asked for,
+ * and once the cache is full the least recently used tile (approximated by the clock algorithm) is evicted to make room.
+ *
+ * The cache is thread-safe. Tiles are split between up to 16 stripes by their coordinates (with at least 64 tiles per
+ * stripe), and every stripe has its own lock, its own share of the tiles and its own clock, so threads working in different
+ * parts of the lattice do not contend. Requests for the most recently used tile of a stripe are lock free and write no
+ * shared counters, so they cost little more than the bit lookup itself, and all other requests only take the stripe's lock.
+ * Tiles are loaded without holding any lock, so a slow load only delays the threads waiting for that tile. The loader must
+ * therefore be thread-safe. If two threads miss the same tile at once, both load it and the first copy inserted is kept.
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class TileCache {
+
+    private static final int MAX_STRIPES = 16;
+    private static final int MIN_STRIPE_TILES = 64;     //Small caches use fewer stripes, so that no stripe runs out of room early
+
+    /**
+     * Loads the words of a tile that is not resident. May be called by several threads at once, also for the same tile.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * @param tx The x coordinate of the tile.
+         * @param ty The y coordinate of the tile.
+         * @return The words of the tile, which must not be changed afterwards.
+         */
+        public long[] load(int tx, int ty);
+    }
+
+    /**
+     * A resident tile. Its words are never changed once loaded, so a reference to it stays valid after it is evicted.
+     * The clock reference bit belongs to the tile rather than to its slot, so a request that races with an eviction can
+     * only mark the evicted tile, never the tile that took its slot.
+     */
+    private static final class Tile {
+        public final long key;      //Lattice2D.getLongPos of the tile coordinates
+        public final long[] words;
+        public boolean referenced = true;   //Set by every request, cleared by the clock (a hint, so it is not locked)
+
+        public Tile(long key, long[] words) {
+            this.key = key;
+            this.words = words;
+        }
+    }
+
+    /**
+     * The tiles of one stripe and their clock (guarded by the stripe, except for last).
+     */
+    private static final class Stripe {
+        public final Tile[] slots;
+        public final LongIntMap slotOf = new LongIntMap();     //Tile key -> slot
+        public int resident = 0;
+        public int hand = 0;
+        public long hits = 0, misses = 0, evictions = 0;
+        public volatile Tile last;                              //The most recently loaded or requested tile of the stripe
+
+        public Stripe(int maxTiles) {
+            this.slots = new Tile[maxTiles];
+        }
+    }
+
+    private final Loader loader;
+    private final Stripe[] stripes;
+
+    /**
+     * @param maxTiles The most tiles held in memory at once, at least 1.
+     * @param loader Loads a tile that is not resident.
+     */
+    public TileCache(int maxTiles, Loader loader) {
+        if (maxTiles < 1) {
+            throw new IllegalArgumentException("The tile cache needs at least one tile: " + maxTiles);
+        }
+        this.loader = loader;
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(1, Math.min(MAX_STRIPES, maxTiles / MIN_STRIPE_TILES)))];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(maxTiles / stripes.length + (i < maxTiles % stripes.length ? 1 : 0));
+        }
+    }
+
+    /**
+     * @param tx The x coordinate of the tile.
+     * @param ty The y coordinate of the tile.
+     * @return The words of the tile, loaded if it is not resident.
+     */
+    public long[] tile(int tx, int ty) {
+        long key = Lattice2D.getLongPos(tx, ty);
+        Stripe stripe = stripes[(int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & (stripes.length - 1)];
+        Tile tile = stripe.last;
+        if (tile == null || tile.key != key) {
+            tile = fetch(stripe, key, tx, ty);
+        }
+        if (!tile.referenced) {
+            tile.referenced = true;
+        }
+        return tile.words;
+    }
+
+    /**
+     * Finds a tile in its stripe, loading it (and evicting another tile of the stripe if the stripe is full) if it is not resident.
+     */
+    private Tile fetch(Stripe stripe, long key, int tx, int ty) {
+        synchronized (stripe) {
+            int slot = stripe.slotOf.get(key);
+            if (slot >= 0) {
+                stripe.hits++;
+                stripe.last = stripe.slots[slot];
+                return stripe.slots[slot];
+            }
+        }
+
+        long[] words = loader.load(tx, ty);
+        synchronized (stripe) {
+            stripe.misses++;
+            //Another thread may have loaded the tile while the stripe was unlocked.
+            int slot = stripe.slotOf.get(key);
+            if (slot >= 0) {
+                stripe.last = stripe.slots[slot];
+                return stripe.slots[slot];
+            }
+            Tile[] slots = stripe.slots;
+            if (stripe.resident < slots.length) {
+                slot = stripe.resident++;
+            } else {
+                //Clock: skip (and clear) recently referenced tiles until an unreferenced one is found.
+                while (slots[stripe.hand].referenced) {
+                    slots[stripe.hand].referenced = false;
+                    stripe.hand = (stripe.hand + 1) % slots.length;
+                }
+                slot = stripe.hand;
+                stripe.hand = (stripe.hand + 1) % slots.length;
+                stripe.slotOf.remove(slots[slot].key);
+                stripe.evictions++;
+            }
+
+            Tile tile = new Tile(key, words);
+            slots[slot] = tile;
+            stripe.slotOf.put(key, slot);
+            stripe.last = tile;
+            return tile;
+        }
+    }
+
+    /**
+     * @return The number of requests answered by a resident tile found in its stripe. Repeated requests for the most recently
+     *         used tile of a stripe are answered without any bookkeeping, so they are not counted.
+     */
+    public long hits() {
+        long hits = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                hits += stripe.hits;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * @return The number of tiles loaded.
+     */
+    public long misses() {
+        long misses = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                misses += stripe.misses;
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * @return The number of tiles evicted to make room for another tile.
+     */
+    public long evictions() {
+        long evictions = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                evictions += stripe.evictions;
+            }
+        }
+        return evictions;
+    }
+
+    /**
+     * @return The number of tiles currently held in memory.
+     */
+    public int residentTiles() {
+        int resident = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                resident += stripe.resident;
+            }
+        }
+        return resident;
+    }
+}
@@ -0,0 +1,339 @@
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A bounded lattice stored on disk as fixed-size square tiles, of which only a bounded number are held in memory. A tile is
+ * read from disk the first time one of its positions is probed, and once the cache is full the least recently used tile
+ * (approximated by the clock algorithm) is evicted to make room. Searches that only touch a small region of a huge lattice
+ * therefore only pay for the tiles they visit.
+ *
+ * The tiled format is a 20 byte header (the magic number "L2DT", the format version, the width, the height and the tile size,
+ * as big-endian ints) followed by every tile, row of tiles by row of tiles. A tile holds tileSize rows of tileSize / 64
+ * little-endian longs, one bit per position (1 is occupied). Positions of edge tiles that are outside the lattice are occupied.
+ *
+ * Probing is thread-safe (see TileCache).
+ *
+ * @author      Christoff van Zyl <20072015@sun.ac.za>
+ * @version     1.0
+ *
+ */
+public class TiledGrid implements LatticeProbe, AutoCloseable {
+
+    public static final int DEFAULT_TILE_SIZE = 256;
+    public static final int DEFAULT_MAX_TILES = 1024;
+
+    private static final int MAGIC = 0x4c324454;       //"L2DT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+
+    private final FileChannel channel;
+    private final int width, height;
+    private final int tileSize, tileShift, wordsPerTileRow, tilesPerRow;
+
+    private final TileCache cache;
+
+    private TiledGrid(FileChannel channel, int width, int height, int tileSize, int maxTiles) {
+        this.channel = channel;
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+        this.tileShift = Integer.numberOfTrailingZeros(tileSize);
+        this.wordsPerTileRow = tileSize >>> 6;
+        this.tilesPerRow = (width + tileSize - 1) >>> tileShift;
+        this.cache = new TileCache(maxTiles, this::load);
+    }
+
+    /**
+     * Opens a tiled lattice file with the default cache size.
+     *
+     * @param fname The name of the tiled lattice file.
+     * @return The lattice.
+     * @throws IOException If the file could not be opened, or is not a tiled lattice file.
+     */
+    public static TiledGrid open(String fname) throws IOException {
+        return open(fname, DEFAULT_MAX_TILES);
+    }
+
+    /**
+     * Opens a tiled lattice file. The file stays open until the lattice is closed.
+     *
+     * @param fname The name of the tiled lattice file.
+     * @param maxTiles The most tiles held in memory at once, at least 1.
+     * @return The lattice.
+     * @throws IOException If the file could not be opened, or is not a tiled lattice file.
+     */
+    public static TiledGrid open(String fname, int maxTiles) throws IOException {
+        if (maxTiles < 1) {
+            throw new IllegalArgumentException("The tile cache needs at least one tile: " + maxTiles);
+        }
+        FileChannel channel = FileChannel.open(Paths.get(fname), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException(fname + " is not a tiled lattice file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(fname + " has unsupported tiled lattice version " + version);
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            int tileSize = header.getInt();
+            if (width < 0 || height < 0 || !validTileSize(tileSize)) {
+                throw new IOException(fname + " has an invalid header: " + width + "x" + height + " in tiles of " + tileSize);
+            }
+
+            long tiles = (long) ((width + tileSize - 1) / tileSize) * ((height + tileSize - 1) / tileSize);
+            if (channel.size() < HEADER_BYTES + tiles * tileSize * (tileSize >>> 3)) {
+                throw new IOException(fname + " is truncated");
+            }
+            return new TiledGrid(channel, width, height, tileSize, maxTiles);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * @param fname The name of a lattice file.
+     * @return True if the file starts with the magic number of a tiled lattice file.
+     */
+    public static boolean isTiled(String fname) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(fname))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private static boolean validTileSize(int tileSize) {
+        return tileSize >= 64 && tileSize <= (1 << 15) && Integer.bitCount(tileSize) == 1;
+    }
+
+    /**
+     * Writes a bounded lattice to a tiled lattice file, a tile at a time.
+     *
+     * @param probe The lattice (e.g. a BitGrid or MappedGrid).
+     * @param width The width of the lattice.
+     * @param height The height of the lattice.
+     * @param tileSize The width and height of a tile, a power of two from 64 to 32768.
+     * @param tiledName The name of the tiled lattice file to write.
+     * @throws IOException If the file could not be written.
+     */
+    public static void write(LatticeProbe probe, int width, int height, int tileSize, String tiledName) throws IOException {
+        if (!validTileSize(tileSize)) {
+            throw new IllegalArgumentException("Tile size must be a power of two from 64 to 32768: " + tileSize);
+        }
+        try (FileChannel out = FileChannel.open(Paths.get(tiledName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(out, width, height, tileSize);
+            ByteBuffer tile = ByteBuffer.allocate(tileSize * (tileSize >>> 3)).order(ByteOrder.LITTLE_ENDIAN);
+            long word;
+            for (int ty = 0; ty < height; ty += tileSize) {
+                for (int tx = 0; tx < width; tx += tileSize) {
+                    tile.clear();
+                    for (int y = ty; y < ty + tileSize; y++) {
+                        for (int x = tx; x < tx + tileSize; x += 64) {
+                            word = 0;
+                            for (int bit = 0; bit < 64; bit++) {
+                                if (x + bit >= width || y >= height || probe.isBlocked(x + bit, y)) {
+                                    word |= 1L << bit;
+                                }
+                            }
+                            tile.putLong(word);
+                        }
+                    }
+                    tile.flip();
+                    while (tile.hasRemaining()) {
+                        out.write(tile);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts a text lattice file (the character '0' is an empty space and any other character is occupied, one row per line,
+     * see BitGrid.read) to a tiled lattice file. The text file is read twice, once to size the lattice and once to write it a
+     * row of tiles at a time, so only tileSize lines are ever held in memory.
+     *
+     * @param textName The name of the text lattice file.
+     * @param tiledName The name of the tiled lattice file to write.
+     * @param tileSize The width and height of a tile, a power of two from 64 to 32768.
+     * @throws IOException If either file could not be read or written.
+     */
+    public static void convert(String textName, String tiledName, int tileSize) throws IOException {
+        if (!validTileSize(tileSize)) {
+            throw new IllegalArgumentException("Tile size must be a power of two from 64 to 32768: " + tileSize);
+        }
+        int width = 0, height = 0;
+        String line;
+        try (BufferedReader in = new BufferedReader(new FileReader(textName))) {
+            while ((line = in.readLine()) != null) {
+                width = Math.max(width, line.length());
+                height++;
+            }
+        }
+
+        String[] band = new String[tileSize];
+        try (BufferedReader in = new BufferedReader(new FileReader(textName));
+             FileChannel out = FileChannel.open(Paths.get(tiledName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(out, width, height, tileSize);
+            ByteBuffer tile = ByteBuffer.allocate(tileSize * (tileSize >>> 3)).order(ByteOrder.LITTLE_ENDIAN);
+            long word;
+            for (int ty = 0; ty < height; ty += tileSize) {
+                for (int y = 0; y < tileSize; y++) {
+                    band[y] = ty + y < height ? in.readLine() : null;
+                }
+                for (int tx = 0; tx < width; tx += tileSize) {
+                    tile.clear();
+                    for (int y = 0; y < tileSize; y++) {
+                        for (int x = tx; x < tx + tileSize; x += 64) {
+                            word = 0;
+                            for (int bit = 0; bit < 64; bit++) {
+                                if (x + bit >= width || band[y] == null || x + bit >= band[y].length() || band[y].charAt(x + bit) != '0') {
+                                    word |= 1L << bit;
+                                }
+                            }
+                            tile.putLong(word);
+                        }
+                    }
+                    tile.flip();
+                    while (tile.hasRemaining()) {
+                        out.write(tile);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void writeHeader(FileChannel out, int width, int height, int tileSize) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(tileSize);
+        header.flip();
+        while (header.hasRemaining()) {
+            out.write(header);
+        }
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int tileSize() {
+        return tileSize;
+    }
+
+    /**
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return True if the position is occupied or outside the lattice.
+     * @throws UncheckedIOException If the tile holding the position could not be read.
+     */
+    @Override
+    public boolean isBlocked(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return true;
+        }
+        long[] words = cache.tile(x >>> tileShift, y >>> tileShift);
+        return (words[((y & (tileSize - 1)) * wordsPerTileRow) + ((x & (tileSize - 1)) >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * @return True: tiles are loaded with positional reads and cached by a thread-safe TileCache.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    private long[] load(int tx, int ty) {
+        long[] words = new long[tileSize * wordsPerTileRow];
+        ByteBuffer buffer = ByteBuffer.allocate(words.length << 3).order(ByteOrder.LITTLE_ENDIAN);
+        long position = HEADER_BYTES + ((long) ty * tilesPerRow + tx) * buffer.capacity();
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of tiled lattice file");
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Tile [" + tx + ", " + ty + "] could not be read", ex);
+        }
+        buffer.flip();
+        buffer.asLongBuffer().get(words);
+        return words;
+    }
+
+    /**
+     * @return The number of probes answered by a resident tile, not counting repeated probes of the last tile used (see TileCache.hits).
+     */
+    public long hits() {
+        return cache.hits();
+    }
+
+    /**
+     * @return The number of tiles loaded from disk.
+     */
+    public long misses() {
+        return cache.misses();
+    }
+
+    /**
+     * @return The number of tiles evicted to make room for another tile.
+     */
+    public long evictions() {
+        return cache.evictions();
+    }
+
+    /**
+     * @return The number of tiles currently held in memory.
+     */
+    public int residentTiles() {
+        return cache.residentTiles();
+    }
+
+    /**
+     * Closes the tiled lattice file. Tiles that are not resident can no longer be probed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Converts a text or binary lattice file (see MappedGrid) to a tiled lattice file.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2 && args.length != 3) {
+            System.out.println("Wrong Number of Arguments The format should be:\n[Lattice File Name] [Tiled Lattice File Name] [Tile Size (optional)]");
+            return;
+        }
+        try {
+            int tileSize = args.length == 3 ? Integer.parseInt(args[2]) : DEFAULT_TILE_SIZE;
+            if (MappedGrid.isBinary(args[0])) {
+                MappedGrid grid = MappedGrid.open(args[0]);
+                write(grid, grid.width(), grid.height(), tileSize, args[1]);
+            } else {
+                convert(args[0], args[1], tileSize);
+            }
+        } catch (IOException | IllegalArgumentException ex) {
+            System.out.println("Error: Lattice could not be converted: " + ex.getMessage());
+        }
+    }
+}